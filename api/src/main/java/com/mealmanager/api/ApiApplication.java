@@ -1,15 +1,19 @@
 package com.mealmanager.api;
 
+import com.mealmanager.api.config.AsyncTimeoutInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @SpringBootApplication
+@EnableScheduling
 public class ApiApplication {
 
     private final Logger logger = LoggerFactory.getLogger(ApiApplication.class);
@@ -32,6 +36,11 @@ public class ApiApplication {
                         .allowedMethods("*")
                         .allowedOrigins(corsAllowedOrigin);
             }
+
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.registerCallableInterceptors(new AsyncTimeoutInterceptor());
+            }
         };
     }
 }
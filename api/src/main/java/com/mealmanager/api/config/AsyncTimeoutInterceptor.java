@@ -0,0 +1,27 @@
+package com.mealmanager.api.config;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Gives a single asynchronous response, such as a {@code StreamingResponseBody}, a timeout of its own.
+ * The handler sets {@link #TIMEOUT_ATTRIBUTE} on the request to the timeout in milliseconds;
+ * every other asynchronous response keeps the default timeout.
+ */
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".timeout";
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        // the request handed to interceptors is the one whose async processing is about to start
+        if (timeout instanceof Long && request instanceof AsyncWebRequest) {
+            ((AsyncWebRequest) request).setTimeout((Long) timeout);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.mealmanager.api.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.SysUser;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regions of the Hibernate second-level cache.
+ * Entity and query regions are bounded and evict by size. They also expire a while after each write:
+ * the regions are local to each instance and only see that instance's writes, so with several instances
+ * running, another instance's change shows up here once the stale entry expires.
+ * The update timestamps region neither evicts nor expires, since losing a timestamp could let a query
+ * region serve results older than the last local write.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final URI CACHE_MANAGER_URI = URI.create("mealmanager-hibernate");
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.recipe.max-size:10000}") long recipeMaxSize,
+            @Value("${app.cache.sysuser.max-size:1000}") long sysUserMaxSize,
+            @Value("${app.cache.query.max-size:1000}") long queryMaxSize,
+            @Value("${app.cache.ttl-seconds:60}") long ttlSeconds) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(CACHE_MANAGER_URI, HibernateCacheConfig.class.getClassLoader());
+        OptionalLong ttlNanos = OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds));
+        createRegion(cacheManager, Recipe.CACHE_REGION, OptionalLong.of(recipeMaxSize), ttlNanos);
+        createRegion(cacheManager, Recipe.QUERY_CACHE_REGION, OptionalLong.of(queryMaxSize), ttlNanos);
+        createRegion(cacheManager, SysUser.CACHE_REGION, OptionalLong.of(sysUserMaxSize), ttlNanos);
+        createRegion(cacheManager, SysUser.QUERY_CACHE_REGION, OptionalLong.of(queryMaxSize), ttlNanos);
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, OptionalLong.of(queryMaxSize), ttlNanos);
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, OptionalLong.empty(),
+                OptionalLong.empty());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, OptionalLong maxSize, OptionalLong ttlNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maxSize);
+        configuration.setExpireAfterWrite(ttlNanos);
+        configuration.setStatisticsEnabled(true);
+        // a cache manager reused from an earlier context in the same JVM, e.g. in tests, already has the region
+        if (cacheManager.getCache(name) == null) {
+            cacheManager.createCache(name, configuration);
+        }
+    }
+}
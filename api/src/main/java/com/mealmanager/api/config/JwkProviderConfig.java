@@ -1,12 +1,12 @@
 package com.mealmanager.api.config;
 
-import com.auth0.jwk.JwkProvider;
-import com.auth0.jwk.JwkProviderBuilder;
+import com.auth0.jwk.UrlJwkProvider;
+import com.mealmanager.api.security.JwksManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.net.URL;
-import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class JwkProviderConfig {
@@ -17,11 +17,11 @@ public class JwkProviderConfig {
         this.jwtConfig = jwtConfig;
     }
 
-    @Bean
-    public JwkProvider jwkProvider() throws Exception {
-        return new JwkProviderBuilder(new URL(jwtConfig.getJwksUri()))
-                .cached(10, 24, TimeUnit.HOURS)
-                .rateLimited(10, 1, TimeUnit.MINUTES)
-                .build();
+    @Bean(initMethod = "start")
+    public JwksManager jwkProvider(
+            @Value("${app.security.jwks.timeout-ms:5000}") int timeoutMs,
+            @Value("${app.security.jwks.unknown-kid-min-interval-ms:30000}") long unknownKeyMinIntervalMs) throws Exception {
+        UrlJwkProvider source = new UrlJwkProvider(new URL(jwtConfig.getJwksUri()), timeoutMs, timeoutMs);
+        return new JwksManager(source, unknownKeyMinIntervalMs);
     }
-} 
+}
@@ -0,0 +1,23 @@
+package com.mealmanager.api.config;
+
+import com.mealmanager.api.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Single-flight groups for the read endpoints, so concurrent identical reads share one query.
+ */
+@Configuration
+public class ReadCoalescingConfig {
+
+    @Bean
+    public SingleFlight recipeReads(MeterRegistry meterRegistry) {
+        return new SingleFlight("recipes", meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight sysUserReads(MeterRegistry meterRegistry) {
+        return new SingleFlight("users", meterRegistry);
+    }
+}
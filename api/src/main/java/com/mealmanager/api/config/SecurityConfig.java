@@ -2,6 +2,9 @@ package com.mealmanager.api.config;
 
 import com.auth0.jwk.JwkProvider;
 import com.mealmanager.api.security.JwtAuthenticationFilter;
+import com.mealmanager.api.security.JwtVerifiers;
+import com.mealmanager.api.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,20 +23,35 @@ import java.util.Collections;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /** Endpoints open to everyone; the JWT filter skips them, so tokens sent to them are not verified. */
+    public static final String[] PUBLIC_PATHS = {
+        "/api/public/**",
+        "/api/health",
+        "/api/healthcheck",
+        "/api/recipes/public/**",
+        "/api/buildinfo"
+    };
+
     private final JwkProvider jwkProvider;
     private final JwtConfig jwtConfig;
     private final String allowedOrigin;
     private final boolean debugEnabled;
+    private final long tokenCacheSize;
+    private final MeterRegistry meterRegistry;
 
     public SecurityConfig(
             JwkProvider jwkProvider, 
             JwtConfig jwtConfig, 
             @Value("${cors.allowed.origin}") String allowedOrigin,
-            @Value("${app.debug.enabled:false}") boolean debugEnabled) {
+            @Value("${app.debug.enabled:false}") boolean debugEnabled,
+            @Value("${app.security.token-cache.max-size:10000}") long tokenCacheSize,
+            MeterRegistry meterRegistry) {
         this.jwkProvider = jwkProvider;
         this.jwtConfig = jwtConfig;
         this.allowedOrigin = allowedOrigin;
         this.debugEnabled = debugEnabled;
+        this.tokenCacheSize = tokenCacheSize;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
@@ -46,11 +64,7 @@ public class SecurityConfig {
             .and()
             .authorizeRequests()
                 // Public endpoints
-                .antMatchers("/api/public/**").permitAll()
-                .antMatchers("/api/health").permitAll()
-                .antMatchers("/api/healthcheck").permitAll()
-                .antMatchers("/api/recipes/public/**").permitAll()
-                .antMatchers("/api/buildinfo").permitAll()
+                .antMatchers(PUBLIC_PATHS).permitAll()
                 // Secured endpoints
                 .anyRequest().authenticated()
             .and()
@@ -61,7 +75,8 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwkProvider, jwtConfig, debugEnabled);
+        return new JwtAuthenticationFilter(new JwtVerifiers(jwkProvider, jwtConfig), jwtConfig, debugEnabled,
+                new VerifiedTokenCache(tokenCacheSize, meterRegistry), meterRegistry, PUBLIC_PATHS);
     }
 
     @Bean
@@ -0,0 +1,56 @@
+package com.mealmanager.api.controller;
+
+import com.mealmanager.api.dto.OrderStatsDTO;
+import com.mealmanager.api.services.OrderAnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class AnalyticsController {
+
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
+
+    @Autowired
+    OrderAnalyticsService orderAnalyticsService;
+
+    @GetMapping("/analytics/orders")
+    public ResponseEntity<List<OrderStatsDTO>> getOrderStats(
+            @RequestParam(defaultValue = "day") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to == null ? LocalDate.now() : to;
+            LocalDate start = from == null ? end.minusDays(DEFAULT_RANGE_DAYS - 1) : from;
+            if (start.isAfter(end)) {
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+            }
+
+            List<OrderStatsDTO> stats;
+            if ("day".equals(interval)) {
+                stats = orderAnalyticsService.getDailyStats(start, end);
+            } else if ("week".equals(interval)) {
+                stats = orderAnalyticsService.getWeeklyStats(start, end);
+            } else {
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+            }
+            return new ResponseEntity<>(stats, HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error while retrieving order analytics", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -1,13 +1,35 @@
 package com.mealmanager.api.controller;
 
+import com.mealmanager.api.dto.MealPlanDTO;
+import com.mealmanager.api.dto.RecipeImportReportDTO;
+import com.mealmanager.api.dto.RecipePopularityDTO;
+import com.mealmanager.api.dto.RecipeRecommendationDTO;
+import com.mealmanager.api.dto.RecipeSearchPageDTO;
+import com.mealmanager.api.dto.RecipeSuggestionDTO;
+import com.mealmanager.api.events.RecipeChangedEvent;
 import com.mealmanager.api.model.Recipe;
 import com.mealmanager.api.repository.RecipeRepository;
 import com.mealmanager.api.repository.SysUserRepository;
 import com.mealmanager.api.security.SecurityUtils;
+import com.mealmanager.api.services.MealPlanService;
+import com.mealmanager.api.services.PublicRecipeSnapshotService;
+import com.mealmanager.api.services.RecipeAutocompleteService;
+import com.mealmanager.api.services.RecipeImportService;
+import com.mealmanager.api.services.RecipePopularityService;
+import com.mealmanager.api.services.RecipeRecommendationService;
+import com.mealmanager.api.util.SingleFlight;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,18 +37,31 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
 public class RecipeController {
 
+    private static final int MAX_POPULAR_RECIPES = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_RECOMMENDATIONS = 50;
+    private static final int MAX_MEAL_PLAN_RECIPES = 50;
+
     private final Logger logger = LoggerFactory.getLogger(RecipeController.class);
 
     @Autowired
@@ -37,19 +72,62 @@ public class RecipeController {
     
     @Autowired
     SecurityUtils securityUtils;
+
+    @Autowired
+    RecipePopularityService recipePopularityService;
+
+    @Autowired
+    RecipeAutocompleteService recipeAutocompleteService;
+
+    @Autowired
+    PublicRecipeSnapshotService publicRecipeSnapshotService;
+
+    @Autowired
+    RecipeImportService recipeImportService;
+
+    @Autowired
+    RecipeRecommendationService recipeRecommendationService;
+
+    @Autowired
+    MealPlanService mealPlanService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier("recipeReads")
+    SingleFlight recipeReads;
     
     // Public endpoint for recipes - doesn't require authentication
+    // Served from a prebuilt snapshot, so neither a request nor a revalidation touches the database
     @GetMapping("/recipes/public")
-    public ResponseEntity<List<Recipe>> getPublicRecipes() {
+    public ResponseEntity<byte[]> getPublicRecipes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<Recipe> recipes = recipeRepository.findByDisabled(false);
-
-            if (recipes.isEmpty()) {
+            PublicRecipeSnapshotService.Snapshot snapshot = publicRecipeSnapshotService.getSnapshot();
+            boolean gzip = acceptsGzip(acceptEncoding);
+            if (snapshot.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(snapshot.getEtag(gzip))
+                        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+            if (snapshot.isEmpty()) {
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
 
-            return new ResponseEntity<>(recipes, HttpStatus.OK);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(CacheControl.noCache().cachePublic())
+                    .eTag(snapshot.getEtag(gzip))
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+            }
+            return response.body(snapshot.getJson());
         } catch (Exception e) {
+            logger.error("Error retrieving public recipes", e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -66,9 +144,9 @@ public class RecipeController {
             List<Recipe> recipes = new ArrayList<Recipe>();
 
             if (name == null) {
-                recipes.addAll(recipeRepository.findAll());
+                recipes.addAll(recipeReads.load("all", recipeRepository::findAll));
             } else {
-                recipes.addAll(recipeRepository.findByNameContaining(name));
+                recipes.addAll(recipeReads.load("name:" + name, () -> recipeRepository.findByNameContaining(name)));
             }
 
             if (recipes.isEmpty()) {
@@ -81,9 +159,112 @@ public class RecipeController {
         }
     }
 
+    @GetMapping("/recipes/search")
+    public ResponseEntity<RecipeSearchPageDTO> searchRecipes(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            if (q.isBlank() || page < 0) {
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+            }
+            int pageSize = Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE);
+            Page<Recipe> results = recipeReads.load("search:" + page + ":" + pageSize + ":" + q,
+                    () -> findMatchingRecipes(q, PageRequest.of(page, pageSize)));
+            return new ResponseEntity<>(
+                    new RecipeSearchPageDTO(results.getContent(), results.getTotalElements(), page, pageSize), HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error searching recipes", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/recipes/autocomplete")
+    public ResponseEntity<List<RecipeSuggestionDTO>> autocompleteRecipes(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(
+                recipeAutocompleteService.suggest(q, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS)), HttpStatus.OK);
+    }
+
+    @GetMapping("/recipes/popular")
+    public ResponseEntity<List<RecipePopularityDTO>> getPopularRecipes(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<Map.Entry<Long, Long>> top = recipePopularityService.getTopRecipes(Math.min(Math.max(limit, 1), MAX_POPULAR_RECIPES));
+            Map<Long, Recipe> recipes = recipeRepository.findAllById(top.stream().map(Map.Entry::getKey).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+
+            // deleted and disabled recipes keep their counts but are not offered for ordering
+            List<RecipePopularityDTO> popular = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : top) {
+                Recipe recipe = recipes.get(entry.getKey());
+                if (recipe != null && !recipe.getDisabled()) {
+                    popular.add(new RecipePopularityDTO(recipe, entry.getValue()));
+                }
+            }
+            if (popular.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(popular, HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error retrieving popular recipes", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Proposes enabled recipes for the next order, favouring popular ones and avoiding recent orders.
+     */
+    @GetMapping("/recipes/meal-plan")
+    public ResponseEntity<MealPlanDTO> getMealPlan(
+            @RequestParam(defaultValue = "7") int count,
+            @RequestParam(defaultValue = "2") int excludeRecentOrders) {
+        try {
+            int recentOrders = Math.min(Math.max(excludeRecentOrders, 0), mealPlanService.getMaxRecentOrders());
+            List<Recipe> recipes = mealPlanService.propose(Math.min(Math.max(count, 1), MAX_MEAL_PLAN_RECIPES), recentOrders);
+            if (recipes.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(new MealPlanDTO(recipes), HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error generating a meal plan", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/recipes/{id}/often-ordered-with")
+    public ResponseEntity<List<RecipeRecommendationDTO>> getOftenOrderedWith(
+            @PathVariable("id") long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            // ask for extra so deleted and disabled recipes can be skipped without coming up short
+            int wanted = Math.min(Math.max(limit, 1), MAX_RECOMMENDATIONS);
+            List<Map.Entry<Long, Long>> top = recipeRecommendationService.getOftenOrderedWith(id, wanted * 2);
+            Map<Long, Recipe> recipes = recipeRepository.findAllById(top.stream().map(Map.Entry::getKey).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+
+            List<RecipeRecommendationDTO> recommendations = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : top) {
+                Recipe recipe = recipes.get(entry.getKey());
+                if (recipe != null && !recipe.getDisabled() && recommendations.size() < wanted) {
+                    recommendations.add(new RecipeRecommendationDTO(recipe, entry.getValue()));
+                }
+            }
+            if (recommendations.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(recommendations, HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error retrieving recipes often ordered with recipe {}", id, e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @GetMapping("/recipes/{id}")
     public ResponseEntity<Recipe> getRecipeById(@PathVariable("id") long id) {
-        Optional<Recipe> recipeData = recipeRepository.findById(id);
+        Optional<Recipe> recipeData = recipeReads.load("id:" + id, () -> recipeRepository.findById(id));
 
         if (recipeData.isPresent()) {
             return new ResponseEntity<>(recipeData.get(), HttpStatus.OK);
@@ -103,6 +284,7 @@ public class RecipeController {
             
             Recipe _recipe = recipeRepository
                     .save(new Recipe(recipe.getName(), recipe.getDescription(), recipe.getRecipeURL(), recipe.getDisabled()));
+            eventPublisher.publishEvent(RecipeChangedEvent.saved(List.of(_recipe)));
             return new ResponseEntity<>(_recipe, HttpStatus.CREATED);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -113,6 +295,7 @@ public class RecipeController {
     public ResponseEntity<List<Recipe>> createRecipes(@RequestBody List<Recipe> recipes) {
         try {
             List<Recipe> _recipes = recipeRepository.saveAll(recipes);
+            eventPublisher.publishEvent(RecipeChangedEvent.saved(_recipes));
             return new ResponseEntity<>(_recipes, HttpStatus.CREATED);
         } catch (Exception e) {
             logger.error("error while trying to add multiple recipes", e);
@@ -120,6 +303,33 @@ public class RecipeController {
         }
     }
 
+    /**
+     * Imports recipes from a CSV or NDJSON request body without holding the whole body in memory.
+     * Valid rows are imported even when others fail; the report lists the rows that were skipped.
+     */
+    @PostMapping("/recipes/import")
+    public ResponseEntity<RecipeImportReportDTO> importRecipes(
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body) {
+        RecipeImportService.Format importFormat;
+        try {
+            importFormat = RecipeImportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            logger.error("Unsupported recipe import format {}", format);
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            return new ResponseEntity<>(recipeImportService.importRecipes(importFormat, body), HttpStatus.OK);
+        } catch (IOException e) {
+            logger.error("error while reading the recipe import", e);
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("error while importing recipes", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @PutMapping("/recipes/{id}")
     public ResponseEntity<Recipe> updateRecipe(@PathVariable("id") long id, @RequestBody Recipe recipe) {
         Optional<Recipe> recipeData = recipeRepository.findById(id);
@@ -130,7 +340,9 @@ public class RecipeController {
             _recipe.setDescription(recipe.getDescription());
             _recipe.setRecipeURL(recipe.getRecipeURL());
             _recipe.setDisabled(recipe.getDisabled());
-            return new ResponseEntity<>(recipeRepository.save(_recipe), HttpStatus.OK);
+            Recipe saved = recipeRepository.save(_recipe);
+            eventPublisher.publishEvent(RecipeChangedEvent.saved(List.of(saved)));
+            return new ResponseEntity<>(saved, HttpStatus.OK);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -143,7 +355,9 @@ public class RecipeController {
         if (recipeData.isPresent()) {
             Recipe _recipe = recipeData.get();
             _recipe.setDisabled(true);
-            return new ResponseEntity<>(recipeRepository.save(_recipe), HttpStatus.OK);
+            Recipe saved = recipeRepository.save(_recipe);
+            eventPublisher.publishEvent(RecipeChangedEvent.saved(List.of(saved)));
+            return new ResponseEntity<>(saved, HttpStatus.OK);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -153,6 +367,7 @@ public class RecipeController {
     public ResponseEntity<HttpStatus> deleteRecipe(@PathVariable("id") long id) {
         try {
             recipeRepository.deleteById(id);
+            eventPublisher.publishEvent(RecipeChangedEvent.deleted(id));
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -163,10 +378,52 @@ public class RecipeController {
     public ResponseEntity<HttpStatus> deleteAllRecipes() {
         try {
             recipeRepository.deleteAll();
+            eventPublisher.publishEvent(RecipeChangedEvent.allDeleted());
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
     }
+
+    /**
+     * @param acceptEncoding The Accept-Encoding header of the request, may be null
+     * @return Whether the header allows gzip, by naming it or by a wildcard, with a q-value above 0
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        // a coding named explicitly overrides the wildcard
+        Double quality = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return quality != null && quality > 0;
+    }
+
+    private Page<Recipe> findMatchingRecipes(String query, Pageable pageable) {
+        // match the query literally inside names, so % and _ typed by the user are not wildcards
+        String escaped = query.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return recipeRepository.search(query.trim(), "%" + escaped + "%", pageable);
+    }
 }
@@ -1,41 +1,57 @@
 package com.mealmanager.api.controller;
 
-import com.mealmanager.api.dto.EmailTemplateData;
+import com.mealmanager.api.config.AsyncTimeoutInterceptor;
+import com.mealmanager.api.dto.OrderCursor;
+import com.mealmanager.api.dto.OrderFulfillmentDTO;
+import com.mealmanager.api.dto.OrderStatusDTO;
 import com.mealmanager.api.dto.RecipeOrderDTO;
 import com.mealmanager.api.dto.RecipeOrderDetailsDTO;
-import com.mealmanager.api.dto.templatedata.GroceryMealOrderData;
-import com.mealmanager.api.messagequeue.Sender;
+import com.mealmanager.api.dto.RecipeOrderPageDTO;
 import com.mealmanager.api.model.Recipe;
 import com.mealmanager.api.model.RecipeOrder;
-import com.mealmanager.api.model.RecipeOrderItem;
-import com.mealmanager.api.model.RecipeOrderRecipient;
 import com.mealmanager.api.model.SysUser;
-import com.mealmanager.api.repository.RecipeOrderItemRepository;
-import com.mealmanager.api.repository.RecipeOrderRecipientRepository;
 import com.mealmanager.api.repository.RecipeOrderRepository;
 import com.mealmanager.api.repository.RecipeRepository;
 import com.mealmanager.api.repository.SysUserRepository;
+import com.mealmanager.api.services.AsyncOrderService;
+import com.mealmanager.api.services.OrderExportService;
+import com.mealmanager.api.services.OrderFulfillmentService;
+import com.mealmanager.api.services.OrderIdempotencyService;
+import com.mealmanager.api.services.RecipeOrderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 
 @RestController
 @RequestMapping("/api")
 public class RecipeOrderController {
 
+    private static final int DEFAULT_ORDER_PAGE_SIZE = 50;
+    private static final int MAX_ORDER_PAGE_SIZE = 200;
+
     private final Logger logger = LoggerFactory.getLogger(RecipeOrderController.class);
 
     @Autowired
@@ -48,104 +64,184 @@ public class RecipeOrderController {
     RecipeRepository recipeRepository;
 
     @Autowired
-    RecipeOrderItemRepository recipeOrderItemRepository;
+    RecipeOrderService recipeOrderService;
+
+    @Autowired
+    OrderIdempotencyService orderIdempotencyService;
 
     @Autowired
-    RecipeOrderRecipientRepository recipeOrderRecipientRepository;
+    OrderExportService orderExportService;
 
     @Autowired
-    Sender sender;
+    AsyncOrderService asyncOrderService;
+
+    @Autowired
+    OrderFulfillmentService orderFulfillmentService;
+
+    @Value("${app.orders.export.timeout-ms:1800000}")
+    long exportTimeoutMs;
 
     @PostMapping("/orders")
-    public ResponseEntity<RecipeOrder> placeOrder(@RequestBody RecipeOrderDTO recipeOrder) {
+    public ResponseEntity<RecipeOrder> placeOrder(
+            @RequestBody RecipeOrderDTO recipeOrder,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            //verify the users are correct
-            List<SysUser> users = sysUserRepository.findAllById(recipeOrder.getSelectedUserIds());
-            if (users.isEmpty()) {
-                logger.error("No valid user ids passed in");
-                return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                return new ResponseEntity<>(createOrder(recipeOrder, null, null), HttpStatus.CREATED);
             }
-
-            //verify the recipes are correct
-            List<Recipe> recipes = recipeRepository.findAllById(recipeOrder.getSelectedRecipes());
-            if (recipes.isEmpty()) {
-                logger.error("No valid recipe ids passed in");
-                return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
-            }
-
-            //save the order and create the data DTO
-            GroceryMealOrderData templateData = new GroceryMealOrderData();
-            RecipeOrder newOrder = recipeOrderRepository.save(new RecipeOrder(recipeOrder.getMessage()));
-            for (Recipe recipe : recipes) {
-                recipeOrderItemRepository.save(new RecipeOrderItem(newOrder.getId(), recipe.getId()));
-                templateData.addMeal(recipe.getName());
+            if (idempotencyKey.length() > OrderIdempotencyService.MAX_KEY_LENGTH) {
+                logger.error("Idempotency key is longer than {} characters", OrderIdempotencyService.MAX_KEY_LENGTH);
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
             }
-            templateData.setMessage(recipeOrder.getMessage());
+            String requestHash = OrderIdempotencyService.requestHash(recipeOrder.getMessage(),
+                    recipeOrder.getSelectedRecipes(), recipeOrder.getSelectedUserIds());
+            RecipeOrder newOrder = orderIdempotencyService.placeOnce(idempotencyKey, requestHash,
+                    () -> createOrder(recipeOrder, idempotencyKey, requestHash));
+            return new ResponseEntity<>(newOrder, HttpStatus.CREATED);
+        } catch (OrderIdempotencyService.KeyReusedException e) {
+            logger.error("Rejected order reusing an idempotency key", e);
+            return new ResponseEntity<>(null, HttpStatus.UNPROCESSABLE_ENTITY);
+        } catch (Exception e) {
+            logger.error("error while trying to place an order", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-            EmailTemplateData emailData = new EmailTemplateData();
-            for (SysUser user : users) {
-                recipeOrderRecipientRepository.save(new RecipeOrderRecipient(newOrder.getId(), user.getId()));
-                emailData.addTo(List.of(user.getEmail()));
+    @PostMapping("/orders/async")
+    public ResponseEntity<OrderStatusDTO> placeOrderAsync(@RequestBody RecipeOrderDTO recipeOrder) {
+        try {
+            Optional<OrderStatusDTO> status = asyncOrderService.submit(recipeOrder);
+            if (status.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build();
             }
-
-            emailData.setSubject(templateData.getStandardSubject())
-                    .setTemplateName(templateData.getTemplateName())
-                    .setTemplateData(templateData);
-            sender.send(emailData);
-
-            return new ResponseEntity<>(newOrder, HttpStatus.CREATED);
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.LOCATION, "/api/orders/async/" + status.get().getRequestId())
+                    .body(status.get());
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid async order", e);
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
-            logger.error("error while trying to add multiple recipes", e);
+            logger.error("Error while queueing order", e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @GetMapping("/orders/async/{requestId}")
+    public ResponseEntity<OrderStatusDTO> getAsyncOrderStatus(@PathVariable("requestId") String requestId) {
+        Optional<OrderStatusDTO> status = asyncOrderService.getStatus(requestId);
+        if (status.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(status.get(), HttpStatus.OK);
+    }
+
     @GetMapping("/orders")
-    public ResponseEntity<List<RecipeOrder>> getOrders() {
+    public ResponseEntity<RecipeOrderPageDTO> getOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Boolean fulfilled,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to) {
         try {
-            List<RecipeOrder> orders = recipeOrderRepository.findAll();
+            OrderCursor after = cursor == null ? null : OrderCursor.decode(cursor);
+            int pageSize = Math.min(limit == null ? DEFAULT_ORDER_PAGE_SIZE : Math.max(limit, 1), MAX_ORDER_PAGE_SIZE);
+
+            // fetch one extra order to find out whether there is a next page
+            List<RecipeOrder> orders = recipeOrderRepository.findPage(fulfilled, from, to, after, pageSize + 1);
             if (orders.isEmpty()) {
                 return new ResponseEntity<>(null, HttpStatus.NO_CONTENT);
             }
-            
-            // Ensure all orders have createdAt and fulfilled values set
-            for (RecipeOrder order : orders) {
-                if (order.getCreatedAt() == null) {
-                    order.setCreatedAt(new Date());
-                }
+
+            String nextCursor = null;
+            if (orders.size() > pageSize) {
+                orders = orders.subList(0, pageSize);
+                nextCursor = OrderCursor.of(orders.get(pageSize - 1)).encode();
             }
-            
-            return new ResponseEntity<>(orders, HttpStatus.OK);
+            return new ResponseEntity<>(new RecipeOrderPageDTO(orders, nextCursor), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid order page request", e);
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             logger.error("Error while retrieving orders", e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @PostMapping("/orders/fulfillment")
+    public ResponseEntity<Map<String, Integer>> updateFulfillment(@RequestBody OrderFulfillmentDTO request) {
+        try {
+            int updated = orderFulfillmentService.updateFulfillment(request);
+            return new ResponseEntity<>(Map.of("updated", updated), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid order fulfillment request", e);
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error while updating order fulfillment", e);
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            logger.error("Unsupported order export format {}", format);
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+
+        // long exports must not be cut off by the default timeout other async responses keep
+        request.setAttribute(AsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE, exportTimeoutMs);
+        String filename = "orders." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                orderExportService.export(exportFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                orderExportService.export(exportFormat, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @GetMapping("/orders/{id}")
     public ResponseEntity<RecipeOrderDetailsDTO> getOrderDetails(@PathVariable("id") long id) {
         try {
-            Optional<RecipeOrder> orderData = recipeOrderRepository.findById(id);
-            if (orderData.isEmpty()) {
+            Optional<RecipeOrderDetailsDTO> details = recipeOrderRepository.findDetails(id);
+            if (details.isEmpty()) {
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
             }
-            RecipeOrder order = orderData.get();
-            RecipeOrderDetailsDTO dto = new RecipeOrderDetailsDTO(order.getId());
-            List<RecipeOrderItem> orderItems = recipeOrderItemRepository.findByOrderId(order.getId());
-            for (RecipeOrderItem item : orderItems) {
-                dto.addSelectedRecipe(item.getRecipe());
-            }
-            List<RecipeOrderRecipient> orderRecipients = recipeOrderRecipientRepository.findByOrderId(order.getId());
-            for (RecipeOrderRecipient user : orderRecipients) {
-                dto.addSelectedUser(user.getSysUser());
-            }
-            if (order.getMessage() != null) {
-                dto.setMessage(order.getMessage());
-            }
-            return new ResponseEntity<>(dto, HttpStatus.OK);
+            return new ResponseEntity<>(details.get(), HttpStatus.OK);
         } catch (Exception e) {
             logger.error("Error while retrieving orders", e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    private RecipeOrder createOrder(RecipeOrderDTO recipeOrder, String idempotencyKey, String requestHash) {
+        //verify the users are correct
+        List<SysUser> users = sysUserRepository.findAllById(recipeOrder.getSelectedUserIds());
+        if (users.isEmpty()) {
+            throw new IllegalArgumentException("No valid user ids passed in");
+        }
+
+        //verify the recipes are correct
+        List<Recipe> recipes = recipeRepository.findAllById(recipeOrder.getSelectedRecipes());
+        if (recipes.isEmpty()) {
+            throw new IllegalArgumentException("No valid recipe ids passed in");
+        }
+
+        //save the order and queue the order email in the same transaction
+        return recipeOrderService.placeOrder(recipeOrder.getMessage(), recipes, users, idempotencyKey, requestHash);
+    }
 }
@@ -7,9 +7,12 @@ import com.mealmanager.api.messagequeue.Sender;
 import com.mealmanager.api.model.SysUser;
 import com.mealmanager.api.repository.SysUserRepository;
 import com.mealmanager.api.services.EmailService;
+import com.mealmanager.api.services.SysUserLookupService;
+import com.mealmanager.api.util.SingleFlight;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -46,10 +49,17 @@ public class SysUserController {
     @Autowired
     Sender sender;
 
+    @Autowired
+    SysUserLookupService sysUserLookupService;
+
+    @Autowired
+    @Qualifier("sysUserReads")
+    SingleFlight sysUserReads;
+
     @GetMapping("/users")
     public ResponseEntity<List<SysUser>> getAllSysUsers(@RequestParam(required = false) String name) {
         try {
-            List<SysUser> sysUsers = new ArrayList<SysUser>(sysUserRepository.findAll());
+            List<SysUser> sysUsers = new ArrayList<SysUser>(sysUserReads.load("all", sysUserRepository::findAll));
             if (sysUsers.isEmpty()) {
                 return new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
@@ -62,7 +72,7 @@ public class SysUserController {
 
     @GetMapping("/users/{id}")
     public ResponseEntity<SysUser> getSysUserById(@PathVariable("id") long id) {
-        Optional<SysUser> sysUserData = sysUserRepository.findById(id);
+        Optional<SysUser> sysUserData = sysUserReads.load("id:" + id, () -> sysUserRepository.findById(id));
 
         if (sysUserData.isPresent()) {
             return new ResponseEntity<>(sysUserData.get(), HttpStatus.OK);
@@ -87,6 +97,7 @@ public class SysUserController {
     public ResponseEntity<List<SysUser>> createSysUsers(@RequestBody List<SysUser> sysUsers) {
         try {
             List<SysUser> _sysUsers = sysUserRepository.saveAll(sysUsers);
+            _sysUsers.forEach(saved -> sysUserLookupService.invalidate(saved.getClerkUserId()));
             return new ResponseEntity<>(_sysUsers, HttpStatus.CREATED);
         } catch (Exception e) {
             logger.error("error while trying to add multiple sysUsers", e);
@@ -103,7 +114,9 @@ public class SysUserController {
             _sysUser.setFirstName(sysUser.getFirstName());
             _sysUser.setLastName(sysUser.getLastName());
             _sysUser.setEmail(sysUser.getEmail());
-            return new ResponseEntity<>(sysUserRepository.save(_sysUser), HttpStatus.OK);
+            SysUser saved = sysUserRepository.save(_sysUser);
+            sysUserLookupService.invalidate(saved.getClerkUserId());
+            return new ResponseEntity<>(saved, HttpStatus.OK);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -113,6 +126,8 @@ public class SysUserController {
     public ResponseEntity<HttpStatus> deleteSysUser(@PathVariable("id") long id) {
         try {
             sysUserRepository.deleteById(id);
+            // the deleted user's Clerk user ID is unknown here
+            sysUserLookupService.invalidateAll();
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -123,6 +138,7 @@ public class SysUserController {
     public ResponseEntity<HttpStatus> deleteAllSysUsers() {
         try {
             sysUserRepository.deleteAll();
+            sysUserLookupService.invalidateAll();
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
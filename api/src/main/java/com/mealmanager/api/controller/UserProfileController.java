@@ -3,6 +3,7 @@ package com.mealmanager.api.controller;
 import com.mealmanager.api.model.SysUser;
 import com.mealmanager.api.repository.SysUserRepository;
 import com.mealmanager.api.security.SecurityUtils;
+import com.mealmanager.api.services.SysUserLookupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +24,9 @@ public class UserProfileController {
     @Autowired
     private SysUserRepository sysUserRepository;
     
+    @Autowired
+    private SysUserLookupService sysUserLookupService;
+    
     @Autowired
     private SecurityUtils securityUtils;
     
@@ -34,7 +38,7 @@ public class UserProfileController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
         }
         
-        Optional<SysUser> userOpt = sysUserRepository.findByClerkUserId(currentUserId.get());
+        Optional<SysUser> userOpt = sysUserLookupService.findByClerkUserId(currentUserId.get());
         
         if (userOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User profile not found");
@@ -76,6 +80,7 @@ public class UserProfileController {
         }
         
         SysUser savedUser = sysUserRepository.save(user);
+        sysUserLookupService.invalidate(clerkUserId);
         return ResponseEntity.ok(savedUser);
     }
     
@@ -88,7 +93,7 @@ public class UserProfileController {
         
         if (currentUserId.isPresent()) {
             String clerkUserId = currentUserId.get();
-            Optional<SysUser> userOpt = sysUserRepository.findByClerkUserId(clerkUserId);
+            Optional<SysUser> userOpt = sysUserLookupService.findByClerkUserId(clerkUserId);
             response.put("profileExists", userOpt.isPresent());
             
             if (userOpt.isPresent()) {
@@ -0,0 +1,28 @@
+package com.mealmanager.api.dto;
+
+import com.mealmanager.api.model.Recipe;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Recipes proposed for the next order by GET /api/recipes/meal-plan.
+ * {@link #getSelectedRecipes()} can be sent unchanged as {@link RecipeOrderDTO#getSelectedRecipes()}.
+ */
+public class MealPlanDTO {
+    private final List<Long> selectedRecipes;
+    private final List<Recipe> recipes;
+
+    public MealPlanDTO(List<Recipe> recipes) {
+        this.selectedRecipes = recipes.stream().map(Recipe::getId).collect(Collectors.toList());
+        this.recipes = recipes;
+    }
+
+    public List<Long> getSelectedRecipes() {
+        return this.selectedRecipes;
+    }
+
+    public List<Recipe> getRecipes() {
+        return this.recipes;
+    }
+}
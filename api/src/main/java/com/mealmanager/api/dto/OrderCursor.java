@@ -0,0 +1,57 @@
+package com.mealmanager.api.dto;
+
+import com.mealmanager.api.model.RecipeOrder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque keyset pagination cursor for orders, holding the (createdAt, id) of the last order
+ * on a page.
+ */
+public class OrderCursor {
+    private final Date createdAt;
+    private final long id;
+
+    public OrderCursor(Date createdAt, long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static OrderCursor of(RecipeOrder order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    /**
+     * Parses a cursor previously returned by {@link #encode()}.
+     *
+     * @param value The encoded cursor
+     * @return The decoded cursor
+     * @throws IllegalArgumentException If the value is not a valid cursor
+     */
+    public static OrderCursor decode(String value) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            return new OrderCursor(
+                    new Date(Long.parseLong(decoded.substring(0, separator))),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid order cursor: " + value, e);
+        }
+    }
+
+    public String encode() {
+        String raw = this.createdAt.getTime() + ":" + this.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Date getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+}
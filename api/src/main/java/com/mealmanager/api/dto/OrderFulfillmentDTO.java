@@ -0,0 +1,49 @@
+package com.mealmanager.api.dto;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Selects the orders to update through either a list of order ids or a creation date range.
+ */
+public class OrderFulfillmentDTO {
+    private List<Long> orderIds;
+    private Date from;
+    private Date to;
+    private Boolean fulfilled;
+
+    public List<Long> getOrderIds() {
+        return this.orderIds;
+    }
+
+    public void setOrderIds(List<Long> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public Date getFrom() {
+        return this.from;
+    }
+
+    public void setFrom(Date from) {
+        this.from = from;
+    }
+
+    public Date getTo() {
+        return this.to;
+    }
+
+    public void setTo(Date to) {
+        this.to = to;
+    }
+
+    public boolean isFulfilled() {
+        if (this.fulfilled == null) {
+            return true;
+        }
+        return this.fulfilled;
+    }
+
+    public void setFulfilled(Boolean fulfilled) {
+        this.fulfilled = fulfilled;
+    }
+}
@@ -0,0 +1,44 @@
+package com.mealmanager.api.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Order volume for one day or one week, read from the order_daily_stats rollup.
+ */
+public class OrderStatsDTO {
+    private final LocalDate periodStart;
+    private final long orderCount;
+    private final long recipeCount;
+    private final long recipientCount;
+
+    public OrderStatsDTO(LocalDate periodStart, long orderCount, long recipeCount, long recipientCount) {
+        this.periodStart = periodStart;
+        this.orderCount = orderCount;
+        this.recipeCount = recipeCount;
+        this.recipientCount = recipientCount;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public long getRecipeCount() {
+        return recipeCount;
+    }
+
+    public long getRecipientCount() {
+        return recipientCount;
+    }
+
+    public double getRecipesPerOrder() {
+        return orderCount == 0 ? 0 : (double) recipeCount / orderCount;
+    }
+
+    public double getRecipientsPerOrder() {
+        return orderCount == 0 ? 0 : (double) recipientCount / orderCount;
+    }
+}
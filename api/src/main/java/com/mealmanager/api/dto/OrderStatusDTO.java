@@ -0,0 +1,53 @@
+package com.mealmanager.api.dto;
+
+/**
+ * Status of an order placed through POST /api/orders/async.
+ */
+public class OrderStatusDTO {
+
+    public enum Status {
+        QUEUED,
+        PLACED,
+        FAILED
+    }
+
+    private final String requestId;
+    private final Status status;
+    private final Long orderId;
+    private final String error;
+
+    private OrderStatusDTO(String requestId, Status status, Long orderId, String error) {
+        this.requestId = requestId;
+        this.status = status;
+        this.orderId = orderId;
+        this.error = error;
+    }
+
+    public static OrderStatusDTO queued(String requestId) {
+        return new OrderStatusDTO(requestId, Status.QUEUED, null, null);
+    }
+
+    public static OrderStatusDTO placed(String requestId, long orderId) {
+        return new OrderStatusDTO(requestId, Status.PLACED, orderId, null);
+    }
+
+    public static OrderStatusDTO failed(String requestId, String error) {
+        return new OrderStatusDTO(requestId, Status.FAILED, null, error);
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,56 @@
+package com.mealmanager.api.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk recipe import through POST /api/recipes/import.
+ * Only the first errors are listed, so the report stays small however many rows fail.
+ */
+public class RecipeImportReportDTO {
+
+    private final long imported;
+    private final long failed;
+    private final List<RowError> errors;
+
+    public RecipeImportReportDTO(long imported, long failed, List<RowError> errors) {
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * A row that was not imported.
+     */
+    public static class RowError {
+        private final long row;
+        private final String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        /**
+         * @return The 1-based number of the row in the input, counting a CSV header row
+         */
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mealmanager.api.dto;
+
+import com.mealmanager.api.model.RecipeOrder;
+
+import java.util.List;
+
+public class RecipeOrderPageDTO {
+    private final List<RecipeOrder> items;
+    private final String nextCursor;
+
+    public RecipeOrderPageDTO(List<RecipeOrder> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<RecipeOrder> getItems() {
+        return this.items;
+    }
+
+    /**
+     * @return The cursor for the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+}
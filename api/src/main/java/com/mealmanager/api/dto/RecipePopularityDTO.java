@@ -0,0 +1,21 @@
+package com.mealmanager.api.dto;
+
+import com.mealmanager.api.model.Recipe;
+
+public class RecipePopularityDTO {
+    private final Recipe recipe;
+    private final long orderCount;
+
+    public RecipePopularityDTO(Recipe recipe, long orderCount) {
+        this.recipe = recipe;
+        this.orderCount = orderCount;
+    }
+
+    public Recipe getRecipe() {
+        return this.recipe;
+    }
+
+    public long getOrderCount() {
+        return this.orderCount;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mealmanager.api.dto;
+
+import com.mealmanager.api.model.Recipe;
+
+public class RecipeRecommendationDTO {
+    private final Recipe recipe;
+    private final long sharedOrderCount;
+
+    public RecipeRecommendationDTO(Recipe recipe, long sharedOrderCount) {
+        this.recipe = recipe;
+        this.sharedOrderCount = sharedOrderCount;
+    }
+
+    public Recipe getRecipe() {
+        return this.recipe;
+    }
+
+    public long getSharedOrderCount() {
+        return this.sharedOrderCount;
+    }
+}
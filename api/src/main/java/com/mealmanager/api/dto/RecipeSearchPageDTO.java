@@ -0,0 +1,35 @@
+package com.mealmanager.api.dto;
+
+import com.mealmanager.api.model.Recipe;
+
+import java.util.List;
+
+public class RecipeSearchPageDTO {
+    private final List<Recipe> items;
+    private final long total;
+    private final int page;
+    private final int size;
+
+    public RecipeSearchPageDTO(List<Recipe> items, long total, int page, int size) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+    }
+
+    public List<Recipe> getItems() {
+        return this.items;
+    }
+
+    public long getTotal() {
+        return this.total;
+    }
+
+    public int getPage() {
+        return this.page;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+}
@@ -0,0 +1,19 @@
+package com.mealmanager.api.dto;
+
+public class RecipeSuggestionDTO {
+    private final long id;
+    private final String name;
+
+    public RecipeSuggestionDTO(long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+}
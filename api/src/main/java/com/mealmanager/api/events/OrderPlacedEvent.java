@@ -0,0 +1,40 @@
+package com.mealmanager.api.events;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Published inside the transaction that places a recipe order.
+ * Listeners that must stay consistent with the order use the BEFORE_COMMIT phase,
+ * listeners that only react to committed orders use AFTER_COMMIT.
+ */
+public class OrderPlacedEvent {
+
+    private final long orderId;
+    private final Date createdAt;
+    private final List<Long> recipeIds;
+    private final List<Long> recipientIds;
+
+    public OrderPlacedEvent(long orderId, Date createdAt, List<Long> recipeIds, List<Long> recipientIds) {
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+        this.recipeIds = List.copyOf(recipeIds);
+        this.recipientIds = List.copyOf(recipientIds);
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<Long> getRecipeIds() {
+        return recipeIds;
+    }
+
+    public List<Long> getRecipientIds() {
+        return recipientIds;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mealmanager.api.events;
+
+import com.mealmanager.api.model.Recipe;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published after recipes are created, updated, disabled or deleted, so in-memory views of the
+ * recipe catalog can update themselves without reloading it.
+ */
+public class RecipeChangedEvent {
+
+    private final List<Recipe> savedRecipes;
+    private final List<Long> deletedRecipeIds;
+    private final boolean allDeleted;
+    private final boolean reloadRequired;
+
+    private RecipeChangedEvent(List<Recipe> savedRecipes, List<Long> deletedRecipeIds, boolean allDeleted, boolean reloadRequired) {
+        this.savedRecipes = savedRecipes;
+        this.deletedRecipeIds = deletedRecipeIds;
+        this.allDeleted = allDeleted;
+        this.reloadRequired = reloadRequired;
+    }
+
+    /**
+     * @param recipes The recipes as they were saved, including disabled ones
+     * @return An event for created or updated recipes
+     */
+    public static RecipeChangedEvent saved(Collection<Recipe> recipes) {
+        return new RecipeChangedEvent(List.copyOf(recipes), List.of(), false, false);
+    }
+
+    public static RecipeChangedEvent deleted(long recipeId) {
+        return new RecipeChangedEvent(List.of(), List.of(recipeId), false, false);
+    }
+
+    public static RecipeChangedEvent allDeleted() {
+        return new RecipeChangedEvent(List.of(), List.of(), true, false);
+    }
+
+    /**
+     * @return An event for changes too large to describe, e.g. a bulk import; listeners reload the catalog
+     */
+    public static RecipeChangedEvent reloadRequired() {
+        return new RecipeChangedEvent(List.of(), List.of(), false, true);
+    }
+
+    public List<Recipe> getSavedRecipes() {
+        return savedRecipes;
+    }
+
+    public List<Long> getDeletedRecipeIds() {
+        return deletedRecipeIds;
+    }
+
+    public boolean isAllDeleted() {
+        return allDeleted;
+    }
+
+    public boolean isReloadRequired() {
+        return reloadRequired;
+    }
+}
@@ -21,4 +21,9 @@ public class Config {
     public Sender sender() {
         return new Sender();
     }
+
+    @Bean
+    public OutboxRelay outboxRelay() {
+        return new OutboxRelay();
+    }
 }
@@ -0,0 +1,101 @@
+package com.mealmanager.api.messagequeue;
+
+import com.mealmanager.api.model.EmailOutboxMessage;
+import com.mealmanager.api.repository.EmailOutboxMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes queued emails from the outbox table to the email queue.
+ * Each batch is locked, published, confirmed by the broker and marked as sent in one
+ * transaction, so a failed publish leaves the batch in the outbox for the next run.
+ */
+public class OutboxRelay {
+
+    private final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private RabbitTemplate template;
+
+    @Autowired
+    private Queue queue;
+
+    @Autowired
+    private EmailOutboxMessageRepository emailOutboxMessageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.outbox.relay.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:1000}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+        } catch (Exception e) {
+            logger.error("Unable to relay outbox emails, will retry", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup.interval-ms:3600000}")
+    public void deleteSentMessages() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+        Integer deleted = transactionTemplate.execute(status -> emailOutboxMessageRepository.deleteSentBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            logger.info("Deleted {} sent outbox emails", deleted);
+        }
+    }
+
+    private int publishBatch() {
+        List<EmailOutboxMessage> batch = emailOutboxMessageRepository.lockUnsentBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        template.invoke(operations -> {
+            for (EmailOutboxMessage outboxMessage : batch) {
+                operations.send(queue.getName(), toMessage(outboxMessage));
+                ids.add(outboxMessage.getId());
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+
+        emailOutboxMessageRepository.markSent(ids, new Date());
+        logger.debug("Published {} outbox emails", ids.size());
+        return batch.size();
+    }
+
+    private Message toMessage(EmailOutboxMessage outboxMessage) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_SERIALIZED_OBJECT);
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId(String.valueOf(outboxMessage.getId()));
+        return new Message(outboxMessage.getPayload(), properties);
+    }
+}
@@ -0,0 +1,125 @@
+package com.mealmanager.api.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An order accepted by POST /api/orders/async, and its outcome once the worker has handled it.
+ */
+@Entity
+@Table(name = "recipeorder_async")
+public class AsyncRecipeOrder {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String PLACED = "PLACED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @Column(name = "request_id", length = 36)
+    private String requestId;
+
+    @Column(name = "message", nullable = true, columnDefinition = "text")
+    private String message;
+
+    @Column(name = "recipe_ids", nullable = false, columnDefinition = "text")
+    private String recipeIds;
+
+    @Column(name = "user_ids", nullable = false, columnDefinition = "text")
+    private String userIds;
+
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "orderid", nullable = true)
+    private Long orderId;
+
+    @Column(name = "error", nullable = true)
+    private String error;
+
+    @Column(name = "createdat", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    @Column(name = "updatedat", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+
+    public AsyncRecipeOrder() {}
+
+    public AsyncRecipeOrder(String requestId, String message, List<Long> recipeIds, List<Long> userIds) {
+        this.requestId = requestId;
+        this.message = message;
+        this.recipeIds = join(recipeIds);
+        this.userIds = join(userIds);
+        this.status = QUEUED;
+        this.createdAt = new Date();
+        this.updatedAt = this.createdAt;
+    }
+
+    public String getRequestId() {
+        return this.requestId;
+    }
+
+    public String getMessage() {
+        return this.message;
+    }
+
+    public List<Long> getRecipeIds() {
+        return split(this.recipeIds);
+    }
+
+    public List<Long> getUserIds() {
+        return split(this.userIds);
+    }
+
+    public String getStatus() {
+        return this.status;
+    }
+
+    public Long getOrderId() {
+        return this.orderId;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public Date getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return this.updatedAt;
+    }
+
+    public void placed(long orderId) {
+        this.status = PLACED;
+        this.orderId = orderId;
+        this.updatedAt = new Date();
+    }
+
+    public void failed(String error) {
+        this.status = FAILED;
+        this.error = error;
+        this.updatedAt = new Date();
+    }
+
+    private static String join(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static List<Long> split(String ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(ids.split(",")).map(Long::valueOf).collect(Collectors.toList());
+    }
+}
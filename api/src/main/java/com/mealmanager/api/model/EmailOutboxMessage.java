@@ -0,0 +1,54 @@
+package com.mealmanager.api.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import java.util.Date;
+
+@Entity
+@Table(name = "email_outbox")
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(name = "createdat", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    @Column(name = "sentat", nullable = true)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date sentAt;
+
+    public EmailOutboxMessage() {}
+
+    public EmailOutboxMessage(byte[] payload) {
+        this.payload = payload;
+        this.createdAt = new Date();
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public byte[] getPayload() {
+        return this.payload;
+    }
+
+    public Date getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public Date getSentAt() {
+        return this.sentAt;
+    }
+}
@@ -1,18 +1,29 @@
 package com.mealmanager.api.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Recipe.CACHE_REGION)
 @Table(name = "recipe")
 public class Recipe {
 
+    public static final String CACHE_REGION = "recipe";
+    public static final String QUERY_CACHE_REGION = "recipe-queries";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_seq_gen")
+    @SequenceGenerator(name = "recipe_seq_gen", sequenceName = "recipe_id_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "name", nullable = false)
@@ -6,6 +6,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
@@ -16,18 +17,19 @@ import java.util.Date;
 public class RecipeOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipeorder_seq_gen")
+    @SequenceGenerator(name = "recipeorder_seq_gen", sequenceName = "recipeorder_id_seq", allocationSize = 50)
     private long id;
     
     @Column(name = "message", nullable = true)
     private String message;
     
-    @Column(name = "createdat", nullable = true)
+    @Column(name = "createdat", nullable = false)
     @Temporal(TemporalType.TIMESTAMP)
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX")
     private Date createdAt;
     
-    @Column(name = "fulfilled", nullable = true)
+    @Column(name = "fulfilled", nullable = false)
     private Boolean fulfilled;
 
     public RecipeOrder() {
@@ -1,7 +1,10 @@
 package com.mealmanager.api.model;
 
 import javax.persistence.Column;
+import javax.persistence.ConstraintMode;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -23,11 +26,13 @@ public class RecipeOrderItem {
     @Column(name = "recipeid")
     private long recipeId;
 
-    @ManyToOne
-    @JoinColumn(name = "orderid", referencedColumnName = "id", insertable = false, updatable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    // recipeorder is partitioned, so no unique key covers its id alone and no foreign key can reference it
+    @JoinColumn(name = "orderid", referencedColumnName = "id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private RecipeOrder recipeOrder;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recipeid", referencedColumnName = "id", insertable = false, updatable = false)
     private Recipe recipe;
 
@@ -1,7 +1,10 @@
 package com.mealmanager.api.model;
 
 import javax.persistence.Column;
+import javax.persistence.ConstraintMode;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -22,11 +25,13 @@ public class RecipeOrderRecipient {
     @Column(name = "sysuserid")
     private long sysUserId;
 
-    @ManyToOne
-    @JoinColumn(name = "orderid", referencedColumnName = "id", insertable = false, updatable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    // recipeorder is partitioned, so no unique key covers its id alone and no foreign key can reference it
+    @JoinColumn(name = "orderid", referencedColumnName = "id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private RecipeOrder recipeOrder;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sysuserid", referencedColumnName = "id", insertable = false, updatable = false)
     private SysUser sysUser;
 
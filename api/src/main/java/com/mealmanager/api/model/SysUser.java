@@ -1,18 +1,29 @@
 package com.mealmanager.api.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SysUser.CACHE_REGION)
 @Table(name = "sysuser")
 public class SysUser {
 
+    public static final String CACHE_REGION = "sysuser";
+    public static final String QUERY_CACHE_REGION = "sysuser-queries";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sysuser_seq_gen")
+    @SequenceGenerator(name = "sysuser_seq_gen", sequenceName = "sysuser_id_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "firstname", nullable = false)
@@ -0,0 +1,54 @@
+package com.mealmanager.api.repository;
+
+import com.mealmanager.api.model.AsyncRecipeOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for orders accepted by POST /api/orders/async.
+ */
+public interface AsyncRecipeOrderRepository extends JpaRepository<AsyncRecipeOrder, String> {
+
+    /**
+     * Locks the oldest queued orders. Rows already locked by another worker are skipped,
+     * so several application instances can place orders concurrently without placing one twice.
+     *
+     * @param limit The maximum number of orders to lock
+     * @return The locked orders, oldest first
+     */
+    @Query(value = "SELECT * FROM recipeorder_async WHERE status = 'QUEUED' ORDER BY createdat LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<AsyncRecipeOrder> lockQueuedBatch(@Param("limit") int limit);
+
+    /**
+     * Locks one order if it is still queued and not locked by another worker.
+     *
+     * @param requestId The request id of the order
+     * @return The locked order, or empty if it was placed, failed or is being placed elsewhere
+     */
+    @Query(value = "SELECT * FROM recipeorder_async WHERE request_id = :requestId AND status = 'QUEUED' "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<AsyncRecipeOrder> lockQueued(@Param("requestId") String requestId);
+
+    /**
+     * @return The number of orders waiting to be placed
+     */
+    @Query(value = "SELECT COUNT(*) FROM recipeorder_async WHERE status = 'QUEUED'", nativeQuery = true)
+    long countQueued();
+
+    /**
+     * Deletes placed and failed orders last updated before the given time.
+     *
+     * @param cutoff Orders finished before this time are deleted
+     * @return The number of orders deleted
+     */
+    @Modifying
+    @Query("DELETE FROM AsyncRecipeOrder o WHERE o.status <> 'QUEUED' AND o.updatedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") Date cutoff);
+}
@@ -0,0 +1,49 @@
+package com.mealmanager.api.repository;
+
+import com.mealmanager.api.model.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository for pending order emails waiting to be published to the message queue.
+ */
+public interface EmailOutboxMessageRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    /**
+     * Locks the oldest unsent messages. Rows already locked by another relay are skipped,
+     * so several application instances can relay concurrently without publishing twice.
+     *
+     * @param limit The maximum number of messages to lock
+     * @return The locked messages, oldest first
+     */
+    @Query(value = "SELECT * FROM email_outbox WHERE sentat IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<EmailOutboxMessage> lockUnsentBatch(@Param("limit") int limit);
+
+    /**
+     * Marks the given messages as published.
+     *
+     * @param ids The ids of the published messages
+     * @param sentAt The time the messages were confirmed by the broker
+     * @return The number of messages updated
+     */
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.sentAt = :sentAt WHERE m.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") Date sentAt);
+
+    /**
+     * Deletes published messages older than the given time.
+     *
+     * @param cutoff Messages sent before this time are deleted
+     * @return The number of messages deleted
+     */
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") Date cutoff);
+}
@@ -1,7 +1,87 @@
 package com.mealmanager.api.repository;
 
+import com.mealmanager.api.dto.OrderCursor;
 import com.mealmanager.api.model.RecipeOrder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface RecipeOrderRepository extends JpaRepository<RecipeOrder, Long> {
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+public interface RecipeOrderRepository extends JpaRepository<RecipeOrder, Long>, RecipeOrderRepositoryCustom {
+
+    /**
+     * Finds the order created by the request that first used the given idempotency key.
+     *
+     * @param idempotencyKey The Idempotency-Key header of the request
+     * @return The id of the order and the hash of its request, or empty if no order was placed with this key
+     */
+    @Query(value = "SELECT orderid AS \"orderId\", request_hash AS \"requestHash\" FROM recipeorder_idempotency "
+            + "WHERE idempotency_key = :idempotencyKey", nativeQuery = true)
+    Optional<IdempotencyKey> findIdempotencyKey(@Param("idempotencyKey") String idempotencyKey);
+
+    /**
+     * Sets the fulfilled flag of the given orders in one statement. Orders already in that state are not touched.
+     *
+     * @param ids The ids of the orders
+     * @param fulfilled The new fulfilled flag
+     * @return The number of orders changed
+     */
+    @Modifying
+    @Query("UPDATE RecipeOrder o SET o.fulfilled = :fulfilled WHERE o.id IN :ids AND o.fulfilled <> :fulfilled")
+    int updateFulfilled(@Param("ids") Collection<Long> ids, @Param("fulfilled") boolean fulfilled);
+
+    /**
+     * Finds the next orders created in the given range with the given fulfilled flag, in (createdAt, id) order.
+     * The redundant lower bound on createdAt lets the scan of idx_recipeorder_fulfilled_createdat_id start at the cursor.
+     *
+     * @param fulfilled The current fulfilled flag of the orders
+     * @param from Orders created at or after this time are returned
+     * @param to Orders created before this time are returned
+     * @param afterCreatedAt Only orders after (afterCreatedAt, afterId) are returned
+     * @param afterId Only orders after (afterCreatedAt, afterId) are returned
+     * @param pageable The maximum number of orders to return
+     * @return The (createdAt, id) of the matching orders
+     */
+    @Query("SELECT new com.mealmanager.api.dto.OrderCursor(o.createdAt, o.id) FROM RecipeOrder o "
+            + "WHERE o.fulfilled = :fulfilled AND o.createdAt >= :from AND o.createdAt < :to "
+            + "AND o.createdAt >= :afterCreatedAt AND (o.createdAt > :afterCreatedAt OR o.id > :afterId) "
+            + "ORDER BY o.createdAt, o.id")
+    List<OrderCursor> findKeysCreatedBetween(@Param("fulfilled") boolean fulfilled, @Param("from") Date from,
+            @Param("to") Date to, @Param("afterCreatedAt") Date afterCreatedAt, @Param("afterId") long afterId,
+            Pageable pageable);
+
+    /**
+     * Sets the fulfilled flag of the given orders created in the given range. The range bounds let Postgres
+     * skip the partitions that cannot hold the orders. Orders already in that state are not touched.
+     *
+     * @param ids The ids of the orders
+     * @param from The earliest creation time of the orders
+     * @param to The latest creation time of the orders, inclusive
+     * @param fulfilled The new fulfilled flag
+     * @return The number of orders changed
+     */
+    @Modifying
+    @Query("UPDATE RecipeOrder o SET o.fulfilled = :fulfilled "
+            + "WHERE o.id IN :ids AND o.createdAt >= :from AND o.createdAt <= :to AND o.fulfilled <> :fulfilled")
+    int updateFulfilledCreatedBetween(@Param("ids") Collection<Long> ids, @Param("from") Date from,
+            @Param("to") Date to, @Param("fulfilled") boolean fulfilled);
+
+    /**
+     * A row of recipeorder_idempotency.
+     */
+    interface IdempotencyKey {
+
+        long getOrderId();
+
+        /**
+         * @return The hash of the order request, null for keys recorded before hashes were stored
+         */
+        String getRequestHash();
+    }
 }
@@ -0,0 +1,43 @@
+package com.mealmanager.api.repository;
+
+import com.mealmanager.api.dto.OrderCursor;
+import com.mealmanager.api.dto.RecipeOrderDetailsDTO;
+import com.mealmanager.api.model.RecipeOrder;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom queries for RecipeOrder entities that cannot be expressed as derived queries.
+ */
+public interface RecipeOrderRepositoryCustom {
+
+    /**
+     * Finds a page of orders, newest first, using keyset pagination on (createdAt, id).
+     *
+     * @param fulfilled Only return orders with this fulfilled status, or null for all orders
+     * @param from Only return orders created at or after this time, or null for no lower bound
+     * @param to Only return orders created before this time, or null for no upper bound
+     * @param after Only return orders that come after this cursor, or null for the first page
+     * @param limit The maximum number of orders to return
+     * @return The matching orders, ordered by createdAt and id descending
+     */
+    List<RecipeOrder> findPage(Boolean fulfilled, Date from, Date to, OrderCursor after, int limit);
+
+    /**
+     * Loads an order with its recipes and recipients using two queries, regardless of order size.
+     *
+     * @param orderId The id of the order
+     * @return The order details, or empty if the order does not exist
+     */
+    Optional<RecipeOrderDetailsDTO> findDetails(long orderId);
+
+    /**
+     * Deletes idempotency keys created before the given time. The orders themselves are kept.
+     *
+     * @param cutoff Keys created before this time are deleted
+     * @return The number of keys deleted
+     */
+    int deleteIdempotencyKeysBefore(Date cutoff);
+}
@@ -0,0 +1,116 @@
+package com.mealmanager.api.repository;
+
+import com.mealmanager.api.dto.OrderCursor;
+import com.mealmanager.api.dto.RecipeOrderDetailsDTO;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.RecipeOrder;
+import com.mealmanager.api.model.SysUser;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+public class RecipeOrderRepositoryImpl implements RecipeOrderRepositoryCustom {
+
+    private static final String ORDER_WITH_RECIPES_QUERY = "SELECT o, r FROM RecipeOrder o "
+            + "LEFT JOIN RecipeOrderItem i ON i.orderId = o.id "
+            + "LEFT JOIN Recipe r ON r.id = i.recipeId "
+            + "WHERE o.id = :orderId ORDER BY i.id";
+    private static final String ORDER_RECIPIENTS_QUERY = "SELECT u FROM RecipeOrderRecipient rr "
+            + "JOIN SysUser u ON u.id = rr.sysUserId "
+            + "WHERE rr.orderId = :orderId ORDER BY rr.id";
+
+    private static final String DELETE_IDEMPOTENCY_KEYS_SQL =
+            "DELETE FROM recipeorder_idempotency WHERE createdat < :cutoff";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<RecipeOrder> findPage(Boolean fulfilled, Date from, Date to, OrderCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecipeOrder> query = cb.createQuery(RecipeOrder.class);
+        Root<RecipeOrder> order = query.from(RecipeOrder.class);
+        Path<Date> createdAt = order.get("createdAt");
+        Path<Long> id = order.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (fulfilled != null) {
+            predicates.add(cb.equal(order.get("fulfilled"), fulfilled));
+        }
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdAt, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(createdAt, to));
+        }
+        if (after != null) {
+            // (createdAt, id) < (cursor.createdAt, cursor.id)
+            predicates.add(cb.or(
+                    cb.lessThan(createdAt, after.getCreatedAt()),
+                    cb.and(cb.equal(createdAt, after.getCreatedAt()), cb.lessThan(id, after.getId()))));
+        }
+
+        query.select(order)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<RecipeOrderDetailsDTO> findDetails(long orderId) {
+        // one row per recipe, or a single row with a null recipe for an order without items
+        List<Object[]> rows = entityManager.createQuery(ORDER_WITH_RECIPES_QUERY, Object[].class)
+                .setParameter("orderId", orderId)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RecipeOrder order = (RecipeOrder) rows.get(0)[0];
+        RecipeOrderDetailsDTO dto = new RecipeOrderDetailsDTO(order.getId());
+        if (order.getMessage() != null) {
+            dto.setMessage(order.getMessage());
+        }
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                dto.addSelectedRecipe((Recipe) row[1]);
+            }
+        }
+
+        entityManager.createQuery(ORDER_RECIPIENTS_QUERY, SysUser.class)
+                .setParameter("orderId", orderId)
+                .getResultList()
+                .forEach(dto::addSelectedUser);
+        return Optional.of(dto);
+    }
+
+    @Override
+    public int deleteIdempotencyKeysBefore(Date cutoff) {
+        return nativeUpdate(DELETE_IDEMPOTENCY_KEYS_SQL, "recipeorder_idempotency")
+                .setParameter("cutoff", cutoff)
+                .executeUpdate();
+    }
+
+    /**
+     * Creates a native bulk statement that only invalidates cached data of the given table.
+     * Without a declared query space, Hibernate evicts every second-level cache region after a native update.
+     */
+    private NativeQuery<?> nativeUpdate(String sql, String table) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        return query.addSynchronizedQuerySpace(table);
+    }
+}
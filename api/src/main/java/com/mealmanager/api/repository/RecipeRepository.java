@@ -1,22 +1,68 @@
 package com.mealmanager.api.repository;
 
 import com.mealmanager.api.model.Recipe;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 /**
  * Repository for Recipe entities.
  */
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
-  
+
+    String SEARCH_MATCH = "FROM recipe r, websearch_to_tsquery('english', :query) q "
+            + "WHERE r.search_vector @@ q OR r.name ILIKE :namePattern";
+
+    /**
+     * Lists every recipe. The result is kept in the query cache until a recipe is written.
+     */
+    @Override
+    @QueryHints({
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = Recipe.QUERY_CACHE_REGION)
+    })
+    List<Recipe> findAll();
+
+    /**
+     * Finds the recipes with the given ids, e.g. the recipes of a new order.
+     * The result is kept in the query cache until a recipe is written.
+     */
+    @Override
+    @QueryHints({
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = Recipe.QUERY_CACHE_REGION)
+    })
+    List<Recipe> findAllById(Iterable<Long> ids);
+
     /**
      * Finds recipes whose names contain the given string.
+     * Unlike {@link #search}, descriptions are not matched; the trigram index on names serves the LIKE.
      *
      * @param name The name substring to search for
      * @return A list of matching recipes
      */
     List<Recipe> findByNameContaining(String name);
+
+    /**
+     * Searches recipe names and descriptions with the full-text index, and names alone with the trigram index.
+     * Results are ranked by text relevance, then by how closely the name resembles the query.
+     *
+     * @param query The search text, in web search syntax
+     * @param namePattern An ILIKE pattern matching names that contain the query
+     * @param pageable The page of results to return
+     * @return A page of matching recipes, best match first
+     */
+    @Query(value = "SELECT r.* " + SEARCH_MATCH
+            + " ORDER BY ts_rank(r.search_vector, q) DESC, similarity(r.name, :query) DESC, r.id",
+            countQuery = "SELECT COUNT(*) " + SEARCH_MATCH,
+            nativeQuery = true)
+    Page<Recipe> search(@Param("query") String query, @Param("namePattern") String namePattern, Pageable pageable);
   
     /**
      * Finds recipes by their disabled status.
@@ -25,4 +71,10 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
      * @return A list of recipes matching the disabled status
      */
     List<Recipe> findByDisabled(Boolean disabled);
+
+    /**
+     * @return The recipe catalog version, bumped by every statement that changes recipes on any instance
+     */
+    @Query(value = "SELECT version FROM recipe_catalog_version WHERE id = 1", nativeQuery = true)
+    long getCatalogVersion();
 }
@@ -2,9 +2,39 @@ package com.mealmanager.api.repository;
 
 import com.mealmanager.api.model.SysUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
 public interface SysUserRepository extends JpaRepository<SysUser, Long> {
+
+    @Override
+    @QueryHints({
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = SysUser.QUERY_CACHE_REGION)
+    })
+    List<SysUser> findAll();
+
+    @Override
+    @QueryHints({
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = SysUser.QUERY_CACHE_REGION)
+    })
+    List<SysUser> findAllById(Iterable<Long> ids);
+
+    @QueryHints({
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+        @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = SysUser.QUERY_CACHE_REGION)
+    })
     Optional<SysUser> findByClerkUserId(String clerkUserId);
+
+    /**
+     * Same lookup as {@link #findByClerkUserId(String)}, but always read from the database rather than the query cache.
+     */
+    @Query("SELECT u FROM SysUser u WHERE u.clerkUserId = :clerkUserId")
+    Optional<SysUser> loadByClerkUserId(@Param("clerkUserId") String clerkUserId);
 }
@@ -0,0 +1,84 @@
+package com.mealmanager.api.security;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+/**
+ * Authentication of a request carrying a verified Clerk token.
+ * The principal is the decoded token and the name is its subject, the Clerk user ID.
+ * Every user has the same single authority, so one immutable authority list is shared by all instances.
+ * The user ID is also kept wrapped in an Optional, so {@link SecurityUtils#getCurrentUserId()} returns it
+ * without allocating, however often a request asks.
+ */
+public final class ClerkAuthentication implements Authentication {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final transient DecodedJWT jwt;
+    private final String userId;
+    private final transient Optional<String> currentUserId;
+
+    public ClerkAuthentication(DecodedJWT jwt) {
+        this.jwt = jwt;
+        this.userId = jwt.getSubject();
+        this.currentUserId = Optional.ofNullable(userId);
+    }
+
+    /**
+     * @return The Clerk user ID, empty only for a token without subject
+     */
+    public Optional<String> getUserId() {
+        return currentUserId;
+    }
+
+    @Override
+    public String getName() {
+        return userId;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public DecodedJWT getPrincipal() {
+        return jwt;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (!authenticated) {
+            throw new IllegalArgumentException("A verified Clerk token cannot be marked as unauthenticated");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ClerkAuthentication[" + userId + "]";
+    }
+}
@@ -0,0 +1,193 @@
+package com.mealmanager.api.security;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.auth0.jwk.Jwk;
+import com.auth0.jwk.JwkException;
+import com.auth0.jwk.JwkProvider;
+import com.auth0.jwk.SigningKeyNotFoundException;
+import com.auth0.jwk.UrlJwkProvider;
+
+/**
+ * Key provider that keeps the whole JWKS in memory and refreshes it on a background schedule.
+ * Requests are always answered from the current key set: a refresh replaces it only once the new
+ * set has been fetched, and a failed refresh keeps serving the previous one. Only a key ID missing
+ * from the set makes a request thread fetch, and concurrent fetches, scheduled or not, share one
+ * request to the JWKS endpoint. Fetches for unknown key IDs are rate-limited, so tokens with made-up
+ * key IDs cannot hammer the endpoint.
+ */
+public class JwksManager implements JwkProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksManager.class);
+
+    private final UrlJwkProvider source;
+    private final long unknownKeyMinIntervalNanos;
+    private final LongSupplier nanoTime;
+
+    private volatile Map<String, Jwk> keys = Map.of();
+
+    /** The fetch running now, guarded by this manager. */
+    private CompletableFuture<Map<String, Jwk>> inFlight;
+    private boolean unknownKeyFetched;
+    private long lastUnknownKeyFetch;
+
+    public JwksManager(UrlJwkProvider source, long unknownKeyMinIntervalMs) {
+        this(source, unknownKeyMinIntervalMs, System::nanoTime);
+    }
+
+    JwksManager(UrlJwkProvider source, long unknownKeyMinIntervalMs, LongSupplier nanoTime) {
+        this.source = source;
+        this.unknownKeyMinIntervalNanos = TimeUnit.MILLISECONDS.toNanos(unknownKeyMinIntervalMs);
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Loads the key set, so the first requests find their keys without fetching.
+     * A failure is only logged; the keys are then fetched by the first request that needs one.
+     */
+    public void start() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${app.security.jwks.refresh-interval-ms:900000}",
+            fixedDelayString = "${app.security.jwks.refresh-interval-ms:900000}")
+    public void refresh() {
+        try {
+            fetch(false);
+        } catch (RuntimeException e) {
+            log.warn("Unable to refresh the JWKS, keeping the {} keys loaded before: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public Jwk get(String keyId) throws JwkException {
+        Jwk jwk = keys.get(keyId);
+        if (jwk != null) {
+            return jwk;
+        }
+        try {
+            jwk = fetch(true).get(keyId);
+        } catch (RuntimeException e) {
+            throw new SigningKeyNotFoundException("Unable to fetch the JWKS for key ID " + keyId, e);
+        }
+        if (jwk == null) {
+            throw new SigningKeyNotFoundException("No key found for key ID " + keyId + " in the JWKS", null);
+        }
+        return jwk;
+    }
+
+    /**
+     * @return The number of keys in the current key set
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Fetches the key set, or waits for the fetch already running.
+     *
+     * @param forUnknownKey Whether a request is missing a key; such fetches start at most once per interval
+     * @return The key set after the fetch, or the current one when a fetch for an unknown key is not allowed yet
+     */
+    private Map<String, Jwk> fetch(boolean forUnknownKey) {
+        CompletableFuture<Map<String, Jwk>> running;
+        CompletableFuture<Map<String, Jwk>> fetching = null;
+        synchronized (this) {
+            running = inFlight;
+            if (running == null) {
+                fetching = startFetch(forUnknownKey);
+                if (fetching == null) {
+                    return keys;
+                }
+            }
+        }
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            Map<String, Jwk> loaded = load();
+            fetching.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            fetching.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (this) {
+                inFlight = null;
+            }
+        }
+    }
+
+    /**
+     * Called holding the lock on this manager, when no fetch is running.
+     *
+     * @return The future of the new fetch, or null when a fetch for an unknown key is not allowed yet
+     */
+    private CompletableFuture<Map<String, Jwk>> startFetch(boolean forUnknownKey) {
+        if (forUnknownKey) {
+            long now = nanoTime.getAsLong();
+            if (unknownKeyFetched && now - lastUnknownKeyFetch < unknownKeyMinIntervalNanos) {
+                return null;
+            }
+            unknownKeyFetched = true;
+            lastUnknownKeyFetch = now;
+            log.info("Fetching the JWKS for an unknown key ID");
+        }
+        inFlight = new CompletableFuture<>();
+        return inFlight;
+    }
+
+    private Map<String, Jwk> load() {
+        List<Jwk> fetched;
+        try {
+            fetched = source.getAll();
+        } catch (SigningKeyNotFoundException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        Map<String, Jwk> previous = keys;
+        Map<String, Jwk> next = new HashMap<>();
+        for (Jwk jwk : fetched) {
+            if (jwk.getId() != null) {
+                // unchanged keys keep their instance, so verifiers built from them stay valid
+                Jwk current = previous.get(jwk.getId());
+                next.put(jwk.getId(), current != null && sameKey(current, jwk) ? current : jwk);
+            }
+        }
+        keys = Collections.unmodifiableMap(next);
+        if (!next.keySet().equals(previous.keySet())) {
+            log.info("Loaded JWKS with key IDs {}", next.keySet());
+        }
+        return keys;
+    }
+
+    private static Map<String, Jwk> await(CompletableFuture<Map<String, Jwk>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static boolean sameKey(Jwk a, Jwk b) {
+        return Objects.equals(a.getType(), b.getType())
+                && Objects.equals(a.getAlgorithm(), b.getAlgorithm())
+                && Objects.equals(a.getAdditionalAttributes(), b.getAdditionalAttributes())
+                && Objects.equals(a.getCertificateChain(), b.getCertificateChain());
+    }
+}
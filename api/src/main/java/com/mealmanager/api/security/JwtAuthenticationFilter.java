@@ -1,9 +1,9 @@
 package com.mealmanager.api.security;
 
 import java.io.IOException;
-import java.security.interfaces.RSAPublicKey;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -13,24 +13,26 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.auth0.jwk.Jwk;
-import com.auth0.jwk.JwkProvider;
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import com.auth0.jwt.interfaces.Verification;
 import com.mealmanager.api.config.JwtConfig;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * Filter that handles JWT authentication for the API.
  * Validates the JWT token from the Authorization header and sets up Spring Security context.
+ * Verified tokens are remembered until they expire, so repeated requests with the same token skip
+ * the signature check; the checks that do run are timed as app.security.jwt.verification.
+ * Requests to public paths are not filtered at all, so any token they carry is ignored.
  */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
@@ -38,30 +40,51 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
 
-    private final JwkProvider jwkProvider;
+    private final JwtVerifiers verifiers;
     private final JwtConfig jwtConfig;
     private final boolean debugEnabled;
+    private final VerifiedTokenCache verifiedTokens;
+    private final Timer verificationTimer;
+    private final RequestMatcher publicPaths;
 
     /**
      * Creates a new JWT authentication filter.
      *
-     * @param jwkProvider The JWK provider for key verification
+     * @param verifiers The verifiers for the keys of the JWKS
      * @param jwtConfig The JWT configuration
      * @param debugEnabled Whether debug mode is enabled
+     * @param verifiedTokens The cache of tokens that passed verification
+     * @param meterRegistry The registry for the verification timer
+     * @param publicPaths Ant patterns of the paths that are open to everyone
      */
     public JwtAuthenticationFilter(
-            JwkProvider jwkProvider, 
+            JwtVerifiers verifiers,
             JwtConfig jwtConfig,
-            @Value("${app.debug.enabled:false}") boolean debugEnabled) {
-        this.jwkProvider = jwkProvider;
+            @Value("${app.debug.enabled:false}") boolean debugEnabled,
+            VerifiedTokenCache verifiedTokens,
+            MeterRegistry meterRegistry,
+            String... publicPaths) {
+        this.verifiers = verifiers;
         this.jwtConfig = jwtConfig;
         this.debugEnabled = debugEnabled;
+        this.verifiedTokens = verifiedTokens;
+        this.verificationTimer = meterRegistry.timer("app.security.jwt.verification");
+        // the patterns are parsed once here rather than on every request
+        this.publicPaths = publicPaths.length == 0 ? request -> false
+                : new OrRequestMatcher(Arrays.stream(publicPaths)
+                        .map(AntPathRequestMatcher::new)
+                        .collect(Collectors.toList()));
         
         if (debugEnabled) {
             log.warn("JWT Debug mode is enabled. This should not be used in production!");
         }
     }
 
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return publicPaths.matches(request);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -104,24 +127,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Validates the JWT token against the configured issuer and audience.
+     * Validates the JWT token, answering from the verified-token cache when possible.
      *
      * @param token The JWT token to validate
      * @return An Optional containing the decoded JWT if valid
      */
     private Optional<DecodedJWT> validateToken(String token) {
+        Optional<DecodedJWT> cached = verifiedTokens.get(token);
+        if (cached.isPresent()) {
+            if (debugEnabled) {
+                log.debug("JWT token was verified before, skipping verification");
+            }
+            return cached;
+        }
+
+        Timer.Sample sample = Timer.start();
+        Optional<DecodedJWT> verified = verifyToken(token);
+        sample.stop(verificationTimer);
+        verified.ifPresent(jwt -> verifiedTokens.put(token, jwt));
+        return verified;
+    }
+
+    /**
+     * Verifies the JWT token's signature against the configured issuer and audience.
+     *
+     * @param token The JWT token to verify
+     * @return An Optional containing the decoded JWT if valid
+     */
+    private Optional<DecodedJWT> verifyToken(String token) {
         try {
-            // Only decode and log token details if debug is enabled
+            DecodedJWT jwt = JWT.decode(token);
             if (debugEnabled) {
                 log.debug("Validating JWT token");
-                DecodedJWT debugJwt = JWT.decode(token);
-                log.debug("JWT Subject: {}", debugJwt.getSubject());
-                log.debug("JWT Issuer: {}", debugJwt.getIssuer());
-                log.debug("JWT Key ID: {}", debugJwt.getKeyId());
+                log.debug("JWT Subject: {}", jwt.getSubject());
+                log.debug("JWT Issuer: {}", jwt.getIssuer());
+                log.debug("JWT Key ID: {}", jwt.getKeyId());
             }
-            
-            // Safe decoding for actual verification
-            DecodedJWT jwt = JWT.decode(token);
+
             String keyId = jwt.getKeyId();
             if (keyId == null) {
                 log.error("JWT key ID is missing");
@@ -129,38 +171,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             if (debugEnabled) {
-                log.debug("Fetching JWK for key ID: {}", keyId);
+                log.debug("Verifying JWT token with key ID {}, issuer {} and {}", keyId, jwtConfig.getIssuer(),
+                        verifiers.checksAudience() ? "audience " + jwtConfig.getAudience() : "no audience check");
             }
-            
-            Jwk jwk = jwkProvider.get(keyId);
-            Algorithm algorithm = Algorithm.RSA256((RSAPublicKey) jwk.getPublicKey(), null);
 
-            // Build the verification with required claims
-            if (debugEnabled) {
-                log.debug("Configuring JWT verification with issuer: {}", jwtConfig.getIssuer());
-            }
-            
-            Verification verification = JWT.require(algorithm)
-                    .withIssuer(jwtConfig.getIssuer());
-            
-            // Only add audience check if configured
-            String audience = jwtConfig.getAudience();
-            if (audience != null && !audience.trim().isEmpty()) {
-                if (debugEnabled) {
-                    log.debug("Adding audience verification: {}", audience);
-                }
-                verification = verification.withAudience(audience);
-            } else if (debugEnabled) {
-                log.debug("No audience configured, skipping audience verification");
-            }
-            
-            // Verify the token
-            if (debugEnabled) {
-                log.debug("Verifying JWT token");
-            }
-            
-            jwt = verification.build().verify(token);
-            
+            // the verifier for the key is built once and reused, and checks the already decoded token
+            jwt = verifiers.forKey(keyId).verify(jwt);
+
             if (debugEnabled) {
                 log.debug("JWT token verified successfully");
             }
@@ -187,21 +204,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * @param jwt The validated JWT token
      */
     private void setAuthentication(DecodedJWT jwt) {
-        String userId = jwt.getSubject();
-        
-        // Create a Spring Security User with the subject claim as the username
-        User user = new User(
-                userId,
-                "",
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-        );
-
-        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                user,
-                null,
-                user.getAuthorities()
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        SecurityContextHolder.getContext().setAuthentication(new ClerkAuthentication(jwt));
     }
-} 
+}
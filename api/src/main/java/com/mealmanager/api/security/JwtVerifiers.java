@@ -0,0 +1,77 @@
+package com.mealmanager.api.security;
+
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.auth0.jwk.Jwk;
+import com.auth0.jwk.JwkException;
+import com.auth0.jwk.JwkProvider;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.JWTVerifier;
+import com.auth0.jwt.interfaces.Verification;
+import com.mealmanager.api.config.JwtConfig;
+
+/**
+ * Holds one ready-built {@link JWTVerifier} per JWKS key ID.
+ * The key provider hands out the same {@link Jwk} instance for a key ID until it reloads the key set,
+ * so a verifier is rebuilt only when the provider returns a different instance for its key ID.
+ * Verifiers are immutable and shared by all request threads.
+ */
+public class JwtVerifiers {
+
+    private final JwkProvider jwkProvider;
+    private final String issuer;
+    private final String audience;
+    private final ConcurrentMap<String, KeyVerifier> verifiers = new ConcurrentHashMap<>();
+
+    public JwtVerifiers(JwkProvider jwkProvider, JwtConfig jwtConfig) {
+        this.jwkProvider = jwkProvider;
+        this.issuer = jwtConfig.getIssuer();
+        String configuredAudience = jwtConfig.getAudience();
+        this.audience = configuredAudience != null && !configuredAudience.trim().isEmpty() ? configuredAudience : null;
+    }
+
+    /**
+     * @param keyId The kid header of the token
+     * @return The verifier checking the signature of that key, the issuer and the audience if configured
+     * @throws JwkException If the key set has no usable key with that ID
+     */
+    public JWTVerifier forKey(String keyId) throws JwkException {
+        Jwk jwk = jwkProvider.get(keyId);
+        KeyVerifier current = verifiers.get(keyId);
+        if (current != null && current.jwk == jwk) {
+            return current.verifier;
+        }
+        KeyVerifier rebuilt = new KeyVerifier(jwk, build(jwk));
+        verifiers.put(keyId, rebuilt);
+        return rebuilt.verifier;
+    }
+
+    /**
+     * @return Whether an audience is checked by the verifiers
+     */
+    public boolean checksAudience() {
+        return audience != null;
+    }
+
+    private JWTVerifier build(Jwk jwk) throws JwkException {
+        Algorithm algorithm = Algorithm.RSA256((RSAPublicKey) jwk.getPublicKey(), null);
+        Verification verification = JWT.require(algorithm).withIssuer(issuer);
+        if (audience != null) {
+            verification = verification.withAudience(audience);
+        }
+        return verification.build();
+    }
+
+    private static final class KeyVerifier {
+        private final Jwk jwk;
+        private final JWTVerifier verifier;
+
+        private KeyVerifier(Jwk jwk, JWTVerifier verifier) {
+            this.jwk = jwk;
+            this.verifier = verifier;
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.util.Optional;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 
 /**
@@ -21,10 +20,8 @@ public class SecurityUtils {
     public Optional<String> getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
-        if (authentication != null && authentication.isAuthenticated() && 
-            authentication.getPrincipal() instanceof User) {
-            User user = (User) authentication.getPrincipal();
-            return Optional.of(user.getUsername()); // Clerk user ID is stored as username
+        if (authentication instanceof ClerkAuthentication) {
+            return ((ClerkAuthentication) authentication).getUserId(); // Clerk user ID is the token subject
         }
         
         return Optional.empty();
@@ -36,8 +33,6 @@ public class SecurityUtils {
      * @return true if authenticated, false otherwise
      */
     public boolean isAuthenticated() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication != null && authentication.isAuthenticated() && 
-               !(authentication.getPrincipal() instanceof String);
+        return SecurityContextHolder.getContext().getAuthentication() instanceof ClerkAuthentication;
     }
 } 
@@ -0,0 +1,104 @@
+package com.mealmanager.api.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of tokens whose signature and claims have already been verified.
+ * Entries are keyed by the SHA-256 of the token, so raw tokens are not kept in memory, and each
+ * entry expires at the exp claim of its token. Tokens without an exp claim are never cached.
+ * Hits and misses are published as the cache.gets meter with cache=jwt-verified-tokens.
+ */
+public class VerifiedTokenCache {
+
+    public static final String CACHE_NAME = "jwt-verified-tokens";
+
+    private final Cache<String, DecodedJWT> tokens;
+    private final Clock clock;
+
+    public VerifiedTokenCache(long maximumSize, MeterRegistry meterRegistry) {
+        this(maximumSize, meterRegistry, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    /**
+     * @param clock Wall-clock time, compared with the exp claims
+     * @param ticker Time source of the cache itself
+     */
+    VerifiedTokenCache(long maximumSize, MeterRegistry meterRegistry, Clock clock, Ticker ticker) {
+        this.clock = clock;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpiresAtClaim())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, CACHE_NAME);
+    }
+
+    /**
+     * @param token The raw token from the Authorization header
+     * @return The decoded token if it was verified before and has not expired since
+     */
+    public Optional<DecodedJWT> get(String token) {
+        return Optional.ofNullable(tokens.getIfPresent(keyOf(token)));
+    }
+
+    /**
+     * Remembers a token that passed verification, until its exp claim.
+     *
+     * @param token The raw token from the Authorization header
+     * @param jwt The verified token
+     */
+    public void put(String token, DecodedJWT jwt) {
+        if (jwt.getExpiresAt() != null && remainingNanos(jwt) > 0) {
+            tokens.put(keyOf(token), jwt);
+        }
+    }
+
+    private long remainingNanos(DecodedJWT jwt) {
+        Date expiresAt = jwt.getExpiresAt();
+        return TimeUnit.MILLISECONDS.toNanos(expiresAt.getTime() - clock.millis());
+    }
+
+    private static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private final class ExpiresAtClaim implements Expiry<String, DecodedJWT> {
+
+        @Override
+        public long expireAfterCreate(String key, DecodedJWT jwt, long currentTime) {
+            return Math.max(0, remainingNanos(jwt));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, DecodedJWT jwt, long currentTime, long currentDuration) {
+            return Math.max(0, remainingNanos(jwt));
+        }
+
+        @Override
+        public long expireAfterRead(String key, DecodedJWT jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
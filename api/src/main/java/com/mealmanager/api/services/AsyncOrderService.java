@@ -0,0 +1,219 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.dto.OrderStatusDTO;
+import com.mealmanager.api.dto.RecipeOrderDTO;
+import com.mealmanager.api.model.AsyncRecipeOrder;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.RecipeOrder;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.repository.AsyncRecipeOrderRepository;
+import com.mealmanager.api.repository.RecipeRepository;
+import com.mealmanager.api.repository.SysUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service that places orders off the request thread.
+ * Accepted orders are written to the recipeorder_async table before the request is answered, so
+ * they survive a restart. A scheduled worker locks queued rows in batches, skipping rows locked by
+ * other instances, and places each batch in one transaction with one user lookup, one recipe lookup
+ * and multi-row inserts, marking the rows placed or failed in the same transaction.
+ * The rows double as the status clients poll until they are deleted after the retention period.
+ */
+@Service
+public class AsyncOrderService {
+
+    private final Logger logger = LoggerFactory.getLogger(AsyncOrderService.class);
+
+    private final RecipeOrderService recipeOrderService;
+    private final RecipeRepository recipeRepository;
+    private final SysUserRepository sysUserRepository;
+    private final AsyncRecipeOrderRepository asyncRecipeOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxQueued;
+    private final int batchSize;
+    private final Duration retention;
+
+    public AsyncOrderService(
+            RecipeOrderService recipeOrderService,
+            RecipeRepository recipeRepository,
+            SysUserRepository sysUserRepository,
+            AsyncRecipeOrderRepository asyncRecipeOrderRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.orders.async.max-queued:1000}") long maxQueued,
+            @Value("${app.orders.async.batch-size:50}") int batchSize,
+            @Value("${app.orders.async.retention-hours:24}") long retentionHours) {
+        this.recipeOrderService = recipeOrderService;
+        this.recipeRepository = recipeRepository;
+        this.sysUserRepository = sysUserRepository;
+        this.asyncRecipeOrderRepository = asyncRecipeOrderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxQueued = maxQueued;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Records an order for placement by the worker.
+     *
+     * @param order The order from the request
+     * @return The QUEUED status of the order, or empty if too many orders are waiting already
+     * @throws IllegalArgumentException if the order has no users or no recipes
+     */
+    public Optional<OrderStatusDTO> submit(RecipeOrderDTO order) {
+        if (order.getSelectedUserIds() == null || order.getSelectedUserIds().isEmpty()) {
+            throw new IllegalArgumentException("No user ids passed in");
+        }
+        if (order.getSelectedRecipes() == null || order.getSelectedRecipes().isEmpty()) {
+            throw new IllegalArgumentException("No recipe ids passed in");
+        }
+        if (asyncRecipeOrderRepository.countQueued() >= maxQueued) {
+            return Optional.empty();
+        }
+
+        String requestId = UUID.randomUUID().toString();
+        asyncRecipeOrderRepository.save(new AsyncRecipeOrder(requestId, order.getMessage(),
+                order.getSelectedRecipes(), order.getSelectedUserIds()));
+        return Optional.of(OrderStatusDTO.queued(requestId));
+    }
+
+    /**
+     * @param requestId The request id returned when the order was queued
+     * @return The status of the order, or empty if it is unknown or has been deleted
+     */
+    public Optional<OrderStatusDTO> getStatus(String requestId) {
+        return asyncRecipeOrderRepository.findById(requestId).map(AsyncOrderService::toStatus);
+    }
+
+    /**
+     * Places queued orders batch by batch until no full batch is left.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.async.poll-interval-ms:200}")
+    public void placeQueuedOrders() {
+        try {
+            Integer locked;
+            do {
+                locked = placeBatch();
+            } while (locked != null && locked == batchSize);
+        } catch (Exception e) {
+            logger.error("Unexpected error in async order worker", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.async.cleanup-interval-ms:3600000}")
+    public void deleteFinishedOrders() {
+        Date cutoff = new Date(System.currentTimeMillis() - retention.toMillis());
+        Integer deleted = transactionTemplate.execute(status -> asyncRecipeOrderRepository.deleteFinishedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            logger.info("Deleted {} finished async orders", deleted);
+        }
+    }
+
+    /**
+     * @return The number of orders locked for the batch
+     */
+    private Integer placeBatch() {
+        List<String> requestIds = new ArrayList<>();
+        try {
+            return transactionTemplate.execute(status -> {
+                List<AsyncRecipeOrder> batch = asyncRecipeOrderRepository.lockQueuedBatch(batchSize);
+                batch.forEach(order -> requestIds.add(order.getRequestId()));
+                placeAll(batch);
+                return batch.size();
+            });
+        } catch (Exception e) {
+            // one bad order rolls back the whole batch, so retry the orders one at a time
+            logger.warn("Async order batch of {} failed, placing orders individually", requestIds.size(), e);
+            for (String requestId : requestIds) {
+                placeIndividually(requestId);
+            }
+            return requestIds.size();
+        }
+    }
+
+    private void placeIndividually(String requestId) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    asyncRecipeOrderRepository.lockQueued(requestId).ifPresent(order -> placeAll(List.of(order))));
+        } catch (Exception e) {
+            logger.error("Error while placing async order {}", requestId, e);
+            transactionTemplate.executeWithoutResult(status ->
+                    asyncRecipeOrderRepository.lockQueued(requestId).ifPresent(order -> order.failed("Order could not be placed")));
+        }
+    }
+
+    /**
+     * Places the locked orders that resolve to at least one user and one recipe and marks the others failed.
+     */
+    private void placeAll(List<AsyncRecipeOrder> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> recipeIds = new HashSet<>();
+        for (AsyncRecipeOrder order : batch) {
+            userIds.addAll(order.getUserIds());
+            recipeIds.addAll(order.getRecipeIds());
+        }
+        Map<Long, SysUser> users = sysUserRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(SysUser::getId, Function.identity()));
+        Map<Long, Recipe> recipes = recipeRepository.findAllById(recipeIds).stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+
+        List<AsyncRecipeOrder> valid = new ArrayList<>(batch.size());
+        List<RecipeOrderService.NewOrder> newOrders = new ArrayList<>(batch.size());
+        for (AsyncRecipeOrder order : batch) {
+            List<SysUser> orderUsers = resolve(order.getUserIds(), users);
+            List<Recipe> orderRecipes = resolve(order.getRecipeIds(), recipes);
+            if (orderUsers.isEmpty()) {
+                order.failed("No valid user ids passed in");
+            } else if (orderRecipes.isEmpty()) {
+                order.failed("No valid recipe ids passed in");
+            } else {
+                valid.add(order);
+                newOrders.add(new RecipeOrderService.NewOrder(order.getMessage(), orderRecipes, orderUsers));
+            }
+        }
+        List<RecipeOrder> placed = recipeOrderService.placeOrders(newOrders);
+        for (int i = 0; i < valid.size(); i++) {
+            valid.get(i).placed(placed.get(i).getId());
+        }
+    }
+
+    private static <T> List<T> resolve(List<Long> ids, Map<Long, T> entities) {
+        return ids.stream()
+                .distinct()
+                .map(entities::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static OrderStatusDTO toStatus(AsyncRecipeOrder order) {
+        switch (order.getStatus()) {
+            case AsyncRecipeOrder.PLACED:
+                return OrderStatusDTO.placed(order.getRequestId(), order.getOrderId());
+            case AsyncRecipeOrder.FAILED:
+                return OrderStatusDTO.failed(order.getRequestId(), order.getError());
+            default:
+                return OrderStatusDTO.queued(order.getRequestId());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.dto.EmailTemplateData;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.SerializationUtils;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Service that queues emails in the outbox table as part of the caller's transaction.
+ * The email is only published once that transaction commits, see {@code OutboxRelay}.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final String INSERT_MESSAGES_SQL = "INSERT INTO email_outbox (payload, createdat) VALUES ";
+    /** Emails per multi-row insert; payloads are a few kilobytes each. */
+    private static final int MAX_ROWS_PER_INSERT = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmailOutboxService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds several emails to the outbox with multi-row inserts. Must be called inside an existing transaction.
+     *
+     * @param emails The emails to send
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<EmailTemplateData> emails) {
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        for (int from = 0; from < emails.size(); from += MAX_ROWS_PER_INSERT) {
+            List<EmailTemplateData> chunk = emails.subList(from, Math.min(from + MAX_ROWS_PER_INSERT, emails.size()));
+            StringBuilder sql = new StringBuilder(INSERT_MESSAGES_SQL);
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+                // stored in the same java-serialized form the queue's message converter produces
+                args[2 * i] = SerializationUtils.serialize(chunk.get(i));
+                args[2 * i + 1] = createdAt;
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+}
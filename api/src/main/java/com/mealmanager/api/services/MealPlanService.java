@@ -0,0 +1,228 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.events.OrderPlacedEvent;
+import com.mealmanager.api.events.RecipeChangedEvent;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.repository.RecipeRepository;
+import com.mealmanager.api.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service that proposes recipes for the next order.
+ * Recipes are drawn at random without replacement, weighted by how often they have been ordered,
+ * from the enabled recipes that were not part of the most recent orders. The enabled recipes and
+ * the recent orders are kept in memory and updated from recipe and order events, so a proposal
+ * never queries the database. Changes made through other instances are picked up by a periodic
+ * refresh, which reloads the recipes when the recipe catalog version moves and re-reads the recent orders.
+ */
+@Service
+public class MealPlanService {
+
+    private static final String RECENT_ORDER_ITEMS_SQL =
+            "SELECT i.orderid, i.recipeid FROM recipeorderitem i "
+            + "JOIN (SELECT id, createdat FROM recipeorder ORDER BY createdat DESC, id DESC LIMIT ?) o ON o.id = i.orderid "
+            + "ORDER BY o.createdat, o.id";
+
+    private final Logger logger = LoggerFactory.getLogger(MealPlanService.class);
+
+    private final RecipeRepository recipeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final RecipePopularityService recipePopularityService;
+    private final int maxRecentOrders;
+
+    /** Enabled recipes by id, only changed while holding the lock on this service. */
+    private final Map<Long, Recipe> enabledRecipes = new LinkedHashMap<>();
+    private volatile Recipe[] candidates = new Recipe[0];
+    /** The recipe catalog version read before the recipes of the last load. */
+    private volatile long loadedVersion;
+
+    /** Recipe ids of the most recent orders, newest first, guarded by itself. */
+    private final Deque<long[]> recentOrders = new ArrayDeque<>();
+
+    public MealPlanService(
+            RecipeRepository recipeRepository,
+            JdbcTemplate jdbcTemplate,
+            RecipePopularityService recipePopularityService,
+            @Value("${app.mealplan.max-recent-orders:20}") int maxRecentOrders) {
+        this.recipeRepository = recipeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.recipePopularityService = recipePopularityService;
+        this.maxRecentOrders = maxRecentOrders;
+    }
+
+    @PostConstruct
+    public void load() {
+        loadRecipes();
+        int orders = loadRecentOrders();
+        logger.info("Loaded {} recipes and {} recent orders for meal plans", candidates.length, orders);
+    }
+
+    /**
+     * Picks up recipes and orders changed through other instances: recipes are reloaded if the
+     * catalog version moved since they were loaded, and the recent orders are always re-read.
+     */
+    @Scheduled(fixedDelayString = "${app.mealplan.refresh-interval-ms:5000}")
+    public void refresh() {
+        try {
+            if (recipeRepository.getCatalogVersion() != loadedVersion) {
+                loadRecipes();
+            }
+            loadRecentOrders();
+        } catch (Exception e) {
+            logger.error("Unable to refresh the meal plan recipes and recent orders", e);
+        }
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.isReloadRequired()) {
+            loadRecipes();
+            return;
+        }
+        synchronized (this) {
+            if (event.isAllDeleted()) {
+                enabledRecipes.clear();
+            }
+            event.getDeletedRecipeIds().forEach(enabledRecipes::remove);
+            for (Recipe recipe : event.getSavedRecipes()) {
+                if (recipe.getDisabled()) {
+                    enabledRecipes.remove(recipe.getId());
+                } else {
+                    enabledRecipes.put(recipe.getId(), recipe);
+                }
+            }
+            candidates = enabledRecipes.values().toArray(new Recipe[0]);
+        }
+    }
+
+    /**
+     * Remembers the recipes of an order once the order has committed.
+     *
+     * @param event The placed order
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        synchronized (recentOrders) {
+            recentOrders.addFirst(toArray(event.getRecipeIds()));
+            while (recentOrders.size() > maxRecentOrders) {
+                recentOrders.removeLast();
+            }
+        }
+    }
+
+    /**
+     * @return The largest number of recent orders a proposal can avoid
+     */
+    public int getMaxRecentOrders() {
+        return maxRecentOrders;
+    }
+
+    /**
+     * Proposes recipes for the next order. Fewer are returned when not enough recipes are eligible.
+     *
+     * @param count The number of recipes to propose
+     * @param excludedRecentOrders How many of the most recent orders to avoid recipes from,
+     *                             at most {@link #getMaxRecentOrders()}
+     * @return The proposed recipes, in the order they were drawn
+     */
+    public List<Recipe> propose(int count, int excludedRecentOrders) {
+        if (count <= 0) {
+            return List.of();
+        }
+        Recipe[] recipes = candidates;
+        LongIntHashMap excluded = recentRecipeIds(excludedRecentOrders);
+
+        // Efraimidis-Spirakis: the recipes with the largest u^(1/w) form a weighted sample without
+        // replacement; log(u)/w ranks the same way without underflowing for large weights
+        Recipe[] best = new Recipe[Math.min(count, recipes.length)];
+        double[] bestKeys = new double[best.length];
+        int size = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (Recipe recipe : recipes) {
+            if (excluded.containsKey(recipe.getId())) {
+                continue;
+            }
+            // never-ordered recipes keep a chance of being proposed
+            double weight = 1 + recipePopularityService.getOrderCount(recipe.getId());
+            double key = Math.log(1 - random.nextDouble()) / weight;
+            if (size < best.length) {
+                size++;
+            } else if (key <= bestKeys[size - 1]) {
+                continue;
+            }
+            // insertion into the short list of best keys, largest first
+            int position = size - 1;
+            while (position > 0 && bestKeys[position - 1] < key) {
+                best[position] = best[position - 1];
+                bestKeys[position] = bestKeys[position - 1];
+                position--;
+            }
+            best[position] = recipe;
+            bestKeys[position] = key;
+        }
+        return List.of(Arrays.copyOf(best, size));
+    }
+
+    private LongIntHashMap recentRecipeIds(int orders) {
+        LongIntHashMap recipeIds = new LongIntHashMap(orders * 8);
+        synchronized (recentOrders) {
+            Iterator<long[]> newestFirst = recentOrders.iterator();
+            for (int i = 0; i < orders && newestFirst.hasNext(); i++) {
+                for (long recipeId : newestFirst.next()) {
+                    recipeIds.put(recipeId, 1);
+                }
+            }
+        }
+        return recipeIds;
+    }
+
+    private synchronized void loadRecipes() {
+        // read first, so a change committed during the load moves the version past it and triggers another load
+        long version = recipeRepository.getCatalogVersion();
+        enabledRecipes.clear();
+        for (Recipe recipe : recipeRepository.findByDisabled(false)) {
+            enabledRecipes.put(recipe.getId(), recipe);
+        }
+        candidates = enabledRecipes.values().toArray(new Recipe[0]);
+        loadedVersion = version;
+    }
+
+    /**
+     * @return The number of recent orders loaded
+     */
+    private int loadRecentOrders() {
+        Map<Long, List<Long>> itemsByOrder = new LinkedHashMap<>();
+        jdbcTemplate.query(RECENT_ORDER_ITEMS_SQL, rs -> {
+            itemsByOrder.computeIfAbsent(rs.getLong("orderid"), id -> new ArrayList<>()).add(rs.getLong("recipeid"));
+        }, maxRecentOrders);
+        synchronized (recentOrders) {
+            recentOrders.clear();
+            // rows come oldest order first, and each order is pushed in front of the older ones
+            itemsByOrder.values().forEach(recipeIds -> recentOrders.addFirst(toArray(recipeIds)));
+        }
+        return itemsByOrder.size();
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
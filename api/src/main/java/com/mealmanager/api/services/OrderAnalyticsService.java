@@ -0,0 +1,122 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.dto.OrderStatsDTO;
+import com.mealmanager.api.events.OrderPlacedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * Service that maintains and reads the order_daily_stats rollup.
+ * Each placed order appends a delta row before the order commits; a scheduled job folds the deltas
+ * into one row per day. Orders never update the shared day row themselves, so concurrent orders do
+ * not queue on its lock. Reads add the deltas not folded yet, so charts include every committed order
+ * while still being answered from one small row per day instead of scanning recipeorder and its item tables.
+ */
+@Service
+public class OrderAnalyticsService {
+
+    private static final String INSERT_DELTA_SQL =
+            "INSERT INTO order_daily_stats_delta (day, recipe_count, recipient_count) VALUES (CAST(? AS date), ?, ?)";
+    private static final String FOLD_DELTAS_SQL =
+            "WITH folded AS (DELETE FROM order_daily_stats_delta RETURNING day, recipe_count, recipient_count) "
+            + "INSERT INTO order_daily_stats (day, order_count, recipe_count, recipient_count) "
+            + "SELECT day, COUNT(*), SUM(recipe_count), SUM(recipient_count) FROM folded GROUP BY day "
+            + "ON CONFLICT (day) DO UPDATE SET "
+            + "order_count = order_daily_stats.order_count + EXCLUDED.order_count, "
+            + "recipe_count = order_daily_stats.recipe_count + EXCLUDED.recipe_count, "
+            + "recipient_count = order_daily_stats.recipient_count + EXCLUDED.recipient_count";
+    /** The rollup and the deltas not folded yet, for days between the two parameters. */
+    private static final String DAILY_ROWS_SQL =
+            "SELECT day, order_count, recipe_count, recipient_count FROM order_daily_stats WHERE day BETWEEN ? AND ? "
+            + "UNION ALL "
+            + "SELECT day, 1, recipe_count, recipient_count FROM order_daily_stats_delta WHERE day BETWEEN ? AND ?";
+    private static final String SELECT_DAILY_STATS_SQL =
+            "SELECT day AS period, SUM(order_count) AS order_count, "
+            + "SUM(recipe_count) AS recipe_count, SUM(recipient_count) AS recipient_count "
+            + "FROM (" + DAILY_ROWS_SQL + ") s GROUP BY day ORDER BY day";
+    private static final String SELECT_WEEKLY_STATS_SQL =
+            "SELECT CAST(date_trunc('week', day) AS date) AS period, SUM(order_count) AS order_count, "
+            + "SUM(recipe_count) AS recipe_count, SUM(recipient_count) AS recipient_count "
+            + "FROM (" + DAILY_ROWS_SQL + ") s GROUP BY 1 ORDER BY 1";
+
+    private static final RowMapper<OrderStatsDTO> STATS_ROW_MAPPER = (rs, rowNum) -> new OrderStatsDTO(
+            rs.getDate("period").toLocalDate(),
+            rs.getLong("order_count"),
+            rs.getLong("recipe_count"),
+            rs.getLong("recipient_count"));
+
+    private final Logger logger = LoggerFactory.getLogger(OrderAnalyticsService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderAnalyticsService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Appends a placed order to the deltas, in the transaction that places the order.
+     *
+     * @param event The placed order
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        // cast in SQL so the day matches the date of the stored createdat column
+        jdbcTemplate.update(INSERT_DELTA_SQL,
+                new Timestamp(event.getCreatedAt().getTime()),
+                event.getRecipeIds().size(),
+                event.getRecipientIds().size());
+    }
+
+    /**
+     * Moves the deltas into the rollup in one statement, so each delta is counted exactly once,
+     * even with several instances folding at the same time.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.analytics.fold-interval-ms:10000}")
+    public void foldDeltas() {
+        try {
+            int days = jdbcTemplate.update(FOLD_DELTAS_SQL);
+            if (days > 0) {
+                logger.debug("Folded order deltas into {} days of the rollup", days);
+            }
+        } catch (Exception e) {
+            logger.error("Unable to fold order deltas into the rollup, will retry", e);
+        }
+    }
+
+    /**
+     * @param from The first day of the range, inclusive
+     * @param to The last day of the range, inclusive
+     * @return One entry per day that has orders
+     */
+    public List<OrderStatsDTO> getDailyStats(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SELECT_DAILY_STATS_SQL, STATS_ROW_MAPPER,
+                Date.valueOf(from), Date.valueOf(to), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * The range is widened to whole weeks, so the first and last entries count their full week
+     * rather than only the days inside the range.
+     *
+     * @param from A day in the first week, inclusive
+     * @param to A day in the last week, inclusive
+     * @return One entry per ISO week (starting Monday) that has orders
+     */
+    public List<OrderStatsDTO> getWeeklyStats(LocalDate from, LocalDate to) {
+        Date monday = Date.valueOf(from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+        Date sunday = Date.valueOf(to.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)));
+        return jdbcTemplate.query(SELECT_WEEKLY_STATS_SQL, STATS_ROW_MAPPER, monday, sunday, monday, sunday);
+    }
+}
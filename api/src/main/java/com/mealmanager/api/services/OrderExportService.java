@@ -0,0 +1,277 @@
+package com.mealmanager.api.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Service that exports the order history joined with its recipes and recipients.
+ * Orders are read in keyset chunks along the primary key; each chunk's recipes and recipients
+ * are loaded with one indexed lookup each, and the chunk is written out before the next is read.
+ * Memory use and sorting are bounded by one chunk rather than by the number of orders.
+ * All chunks are read in one read-only, repeatable-read transaction, so the export is a
+ * consistent snapshot.
+ */
+@Service
+public class OrderExportService {
+
+    private static final String SELECT_ORDERS_SQL =
+            "SELECT id, createdat, fulfilled, message FROM recipeorder WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_RECIPES_SQL =
+            "SELECT i.orderid, r.id AS refid, r.name AS name, CAST(NULL AS VARCHAR) AS email "
+            + "FROM recipeorderitem i "
+            + "JOIN recipe r ON r.id = i.recipeid "
+            + "WHERE i.orderid = ANY (?) "
+            + "ORDER BY i.orderid, r.id";
+    private static final String SELECT_RECIPIENTS_SQL =
+            "SELECT rr.orderid, u.id AS refid, u.firstname || ' ' || u.lastname AS name, u.email AS email "
+            + "FROM recipeorderrecipient rr "
+            + "JOIN sysuser u ON u.id = rr.sysuserid "
+            + "WHERE rr.orderid = ANY (?) "
+            + "ORDER BY rr.orderid, u.id";
+
+    private static final String CSV_HEADER = "order_id,created_at,fulfilled,message,line_type,ref_id,name,email";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @param value The format name from the request, case insensitive
+         * @return The matching format
+         * @throws IllegalArgumentException if the format is not supported
+         */
+        public static Format parse(String value) {
+            return Format.valueOf(value.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public OrderExportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.orders.export.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Writes every order with its recipes and recipients to the output stream, in order id order.
+     * NDJSON writes one JSON object per order, CSV writes one line per recipe and recipient;
+     * an order without recipes gets one recipe line without a recipe id.
+     *
+     * @param format The output format
+     * @param out The stream to write to, it is flushed but not closed
+     * @throws IOException if writing to the stream fails
+     */
+    public void export(Format format, OutputStream out) throws IOException {
+        try {
+            if (format == Format.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                forEachChunk(chunk -> writeCsv(writer, chunk));
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // records are separated by newlines, not by Jackson's default root value separator
+                generator.setRootValueSeparator(null);
+                forEachChunk(chunk -> chunk.forEach(order -> writeOrder(generator, order)));
+                generator.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void forEachChunk(Consumer<List<ExportOrder>> writer) {
+        snapshotTransaction.executeWithoutResult(status -> {
+            long lastId = Long.MIN_VALUE;
+            List<ExportOrder> chunk;
+            do {
+                chunk = readChunk(lastId);
+                if (!chunk.isEmpty()) {
+                    writer.accept(chunk);
+                    lastId = chunk.get(chunk.size() - 1).id;
+                }
+            } while (chunk.size() == chunkSize);
+        });
+    }
+
+    private List<ExportOrder> readChunk(long afterId) {
+        Map<Long, ExportOrder> orders = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_ORDERS_SQL, rs -> {
+            ExportOrder order = new ExportOrder(rs);
+            orders.put(order.id, order);
+        }, afterId, chunkSize);
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        Long[] orderIds = orders.keySet().toArray(new Long[0]);
+        PreparedStatementSetter byOrderIds = ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", orderIds));
+        jdbcTemplate.query(SELECT_RECIPES_SQL, byOrderIds,
+                rs -> {
+                    orders.get(rs.getLong("orderid")).recipes.add(new ExportLine(rs));
+                });
+        jdbcTemplate.query(SELECT_RECIPIENTS_SQL, byOrderIds,
+                rs -> {
+                    orders.get(rs.getLong("orderid")).recipients.add(new ExportLine(rs));
+                });
+        return new ArrayList<>(orders.values());
+    }
+
+    private void writeCsv(Writer writer, List<ExportOrder> chunk) {
+        try {
+            for (ExportOrder order : chunk) {
+                if (order.recipes.isEmpty()) {
+                    writeCsvLine(writer, order, "recipe", null);
+                }
+                for (ExportLine recipe : order.recipes) {
+                    writeCsvLine(writer, order, "recipe", recipe);
+                }
+                for (ExportLine recipient : order.recipients) {
+                    writeCsvLine(writer, order, "recipient", recipient);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, ExportOrder order, String lineType, ExportLine line) throws IOException {
+        writer.write(String.join(",",
+                String.valueOf(order.id),
+                order.createdAt == null ? "" : order.createdAt.toInstant().toString(),
+                String.valueOf(order.fulfilled),
+                csvField(order.message),
+                lineType,
+                line == null ? "" : String.valueOf(line.refId),
+                csvField(line == null ? null : line.name),
+                csvField(line == null ? null : line.email)));
+        writer.write('\n');
+    }
+
+    private void writeOrder(JsonGenerator generator, ExportOrder order) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", order.id);
+            generator.writeStringField("createdAt", order.createdAt == null ? null : order.createdAt.toInstant().toString());
+            generator.writeBooleanField("fulfilled", order.fulfilled);
+            generator.writeStringField("message", order.message);
+
+            generator.writeArrayFieldStart("recipes");
+            for (ExportLine recipe : order.recipes) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", recipe.refId);
+                generator.writeStringField("name", recipe.name);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("recipients");
+            for (ExportLine recipient : order.recipients) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", recipient.refId);
+                generator.writeStringField("name", recipient.name);
+                generator.writeStringField("email", recipient.email);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class ExportOrder {
+        private final long id;
+        private final Timestamp createdAt;
+        private final boolean fulfilled;
+        private final String message;
+        private final List<ExportLine> recipes = new ArrayList<>();
+        private final List<ExportLine> recipients = new ArrayList<>();
+
+        private ExportOrder(ResultSet rs) throws SQLException {
+            this.id = rs.getLong("id");
+            this.createdAt = rs.getTimestamp("createdat");
+            this.fulfilled = rs.getBoolean("fulfilled");
+            this.message = rs.getString("message");
+        }
+    }
+
+    /**
+     * A recipe or recipient of an order.
+     */
+    private static final class ExportLine {
+        private final long refId;
+        private final String name;
+        private final String email;
+
+        private ExportLine(ResultSet rs) throws SQLException {
+            this.refId = rs.getLong("refid");
+            this.name = rs.getString("name");
+            this.email = rs.getString("email");
+        }
+    }
+}
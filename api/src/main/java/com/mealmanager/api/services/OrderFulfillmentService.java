@@ -0,0 +1,108 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.dto.OrderCursor;
+import com.mealmanager.api.dto.OrderFulfillmentDTO;
+import com.mealmanager.api.repository.RecipeOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Service that marks many orders fulfilled or unfulfilled with set-based updates.
+ * Large selections are updated in chunks, each in its own short transaction,
+ * so row locks on recipeorder are only held for one chunk at a time.
+ */
+@Service
+public class OrderFulfillmentService {
+
+    // open ends of a date range, kept inside the range of a Postgres timestamp
+    private static final Date EARLIEST = new Date(0);
+    private static final Date LATEST = Date.from(Instant.parse("9999-12-31T00:00:00Z"));
+
+    private final Logger logger = LoggerFactory.getLogger(OrderFulfillmentService.class);
+
+    private final RecipeOrderRepository recipeOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public OrderFulfillmentService(
+            RecipeOrderRepository recipeOrderRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.orders.fulfillment.chunk-size:1000}") int chunkSize) {
+        this.recipeOrderRepository = recipeOrderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the fulfilled flag of the selected orders.
+     *
+     * @param request Either the order ids or the creation date range of the orders to update
+     * @return The number of orders whose flag changed
+     * @throws IllegalArgumentException if the request selects by both ids and date range, or by neither
+     */
+    public int updateFulfillment(OrderFulfillmentDTO request) {
+        boolean byIds = request.getOrderIds() != null && !request.getOrderIds().isEmpty();
+        boolean byRange = request.getFrom() != null || request.getTo() != null;
+        if (byIds == byRange) {
+            throw new IllegalArgumentException("Select orders by either orderIds or a from/to range");
+        }
+
+        int updated = byIds
+                ? updateByIds(request.getOrderIds(), request.isFulfilled())
+                : updateByRange(request.getFrom(), request.getTo(), request.isFulfilled());
+        logger.info("Set fulfilled={} on {} orders", request.isFulfilled(), updated);
+        return updated;
+    }
+
+    private int updateByIds(List<Long> orderIds, boolean fulfilled) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        int updated = 0;
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<Long> chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+            updated += Objects.requireNonNull(
+                    transactionTemplate.execute(status -> recipeOrderRepository.updateFulfilled(chunk, fulfilled)));
+        }
+        return updated;
+    }
+
+    /**
+     * Walks the range in (createdAt, id) order, one chunk per transaction, so no chunk revisits rows of an earlier one.
+     */
+    private int updateByRange(Date from, Date to, boolean fulfilled) {
+        Date start = from == null ? EARLIEST : from;
+        Date end = to == null ? LATEST : to;
+        int[] updated = {0};
+        OrderCursor after = new OrderCursor(start, Long.MIN_VALUE);
+        List<OrderCursor> chunk;
+        do {
+            OrderCursor position = after;
+            chunk = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                List<OrderCursor> keys = recipeOrderRepository.findKeysCreatedBetween(!fulfilled, start, end,
+                        position.getCreatedAt(), position.getId(), PageRequest.of(0, chunkSize));
+                if (!keys.isEmpty()) {
+                    List<Long> ids = keys.stream().map(OrderCursor::getId).collect(Collectors.toList());
+                    updated[0] += recipeOrderRepository.updateFulfilledCreatedBetween(
+                            ids, keys.get(0).getCreatedAt(), keys.get(keys.size() - 1).getCreatedAt(), fulfilled);
+                }
+                return keys;
+            }));
+            if (!chunk.isEmpty()) {
+                after = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == chunkSize);
+        return updated[0];
+    }
+}
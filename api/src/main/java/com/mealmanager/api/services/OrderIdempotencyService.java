@@ -0,0 +1,176 @@
+package com.mealmanager.api.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mealmanager.api.model.RecipeOrder;
+import com.mealmanager.api.repository.RecipeOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Service that makes order placement idempotent per Idempotency-Key header.
+ * Recently used keys are answered from a bounded, expiring in-memory cache. Keys that are no
+ * longer cached are resolved through the recipeorder_idempotency table, whose primary key also
+ * stops two application instances from placing the same order twice.
+ * Only the order id and the hash of the request are cached; a repeated request gets the order as
+ * it is now, and a request reusing a key for a different order is rejected.
+ */
+@Service
+public class OrderIdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Logger logger = LoggerFactory.getLogger(OrderIdempotencyService.class);
+
+    private final RecipeOrderRepository recipeOrderRepository;
+    private final Cache<String, CompletableFuture<KeyedOrder>> recentOrders;
+    private final Duration keyRetention;
+
+    public OrderIdempotencyService(
+            RecipeOrderRepository recipeOrderRepository,
+            @Value("${app.orders.idempotency.cache-size:10000}") long cacheSize,
+            @Value("${app.orders.idempotency.cache-ttl-minutes:60}") long cacheTtlMinutes,
+            @Value("${app.orders.idempotency.retention-hours:168}") long retentionHours) {
+        this.recipeOrderRepository = recipeOrderRepository;
+        this.recentOrders = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+        this.keyRetention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * @param message The message of the order
+     * @param recipeIds The ids of the selected recipes
+     * @param userIds The ids of the selected users
+     * @return The hex SHA-256 of the order request, equal for requests placing the same order
+     */
+    public static String requestHash(String message, List<Long> recipeIds, List<Long> userIds) {
+        String canonical = recipeIds + "\n" + userIds + "\n" + (message != null ? message : "");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Places an order at most once per idempotency key. A concurrent request with the same key
+     * waits for the first request to finish and returns its order instead of placing another one.
+     * Failed attempts are not remembered, so the client can retry them with the same key.
+     *
+     * @param idempotencyKey The Idempotency-Key header of the request
+     * @param requestHash The {@link #requestHash} of the request
+     * @param placeOrder Places the order and records the key and hash in the same transaction
+     * @return The order placed by the first request that used the key, as currently stored
+     * @throws KeyReusedException If the key was first used for a request with a different hash
+     */
+    public RecipeOrder placeOnce(String idempotencyKey, String requestHash, Supplier<RecipeOrder> placeOrder) {
+        CompletableFuture<KeyedOrder> pending = new CompletableFuture<>();
+        CompletableFuture<KeyedOrder> existing = recentOrders.asMap().putIfAbsent(idempotencyKey, pending);
+        if (existing != null) {
+            logger.debug("Answering repeated idempotency key {} from cache", idempotencyKey);
+            return reload(idempotencyKey, requestHash, await(existing));
+        }
+
+        KeyedOrder keyed;
+        RecipeOrder placed = null;
+        try {
+            Optional<RecipeOrderRepository.IdempotencyKey> stored = recipeOrderRepository.findIdempotencyKey(idempotencyKey);
+            if (stored.isPresent()) {
+                keyed = new KeyedOrder(stored.get());
+            } else {
+                try {
+                    placed = placeOrder.get();
+                    keyed = new KeyedOrder(placed.getId(), requestHash);
+                } catch (DataIntegrityViolationException e) {
+                    // another instance committed an order with this key first
+                    keyed = new KeyedOrder(recipeOrderRepository.findIdempotencyKey(idempotencyKey).orElseThrow(() -> e));
+                }
+            }
+        } catch (RuntimeException e) {
+            recentOrders.asMap().remove(idempotencyKey, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        pending.complete(keyed);
+        return placed != null ? placed : reload(idempotencyKey, requestHash, keyed);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.idempotency.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void deleteExpiredKeys() {
+        Date cutoff = new Date(System.currentTimeMillis() - keyRetention.toMillis());
+        int deleted = recipeOrderRepository.deleteIdempotencyKeysBefore(cutoff);
+        if (deleted > 0) {
+            logger.info("Deleted {} expired order idempotency keys", deleted);
+        }
+    }
+
+    private RecipeOrder reload(String idempotencyKey, String requestHash, KeyedOrder keyed) {
+        if (keyed.requestHash != null && !keyed.requestHash.equals(requestHash)) {
+            throw new KeyReusedException(idempotencyKey);
+        }
+        return recipeOrderRepository.findById(keyed.orderId)
+                .orElseThrow(() -> new IllegalStateException("Order " + keyed.orderId + " of idempotency key "
+                        + idempotencyKey + " no longer exists"));
+    }
+
+    private KeyedOrder await(CompletableFuture<KeyedOrder> order) {
+        try {
+            return order.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Thrown when an idempotency key is sent again with a different order.
+     */
+    public static class KeyReusedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public KeyReusedException(String idempotencyKey) {
+            super("Idempotency key " + idempotencyKey + " was already used for a different order");
+        }
+    }
+
+    private static final class KeyedOrder {
+        private final long orderId;
+        private final String requestHash;
+
+        private KeyedOrder(long orderId, String requestHash) {
+            this.orderId = orderId;
+            this.requestHash = requestHash;
+        }
+
+        private KeyedOrder(RecipeOrderRepository.IdempotencyKey stored) {
+            this(stored.getOrderId(), stored.getRequestHash());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.mealmanager.api.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mealmanager.api.events.RecipeChangedEvent;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.repository.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service that keeps the response of GET /api/recipes/public ready to send.
+ * The snapshot holds the serialized JSON, its gzip form and a strong ETag for each, and is
+ * replaced as a whole, so readers always see one consistent version without touching the database.
+ * Recipe changes trigger a rebuild on a background thread; bursts of changes share one rebuild.
+ * Changes made through other instances are found by a scheduled check of the recipe catalog version,
+ * which rebuilds the snapshot when the version differs from the one it was built from.
+ */
+@Service
+public class PublicRecipeSnapshotService {
+
+    private final Logger logger = LoggerFactory.getLogger(PublicRecipeSnapshotService.class);
+
+    private final RecipeRepository recipeRepository;
+    private final ObjectMapper objectMapper;
+
+    /** One rebuild running and at most one waiting; further requests are covered by the waiting one. */
+    private final ThreadPoolExecutor rebuildExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), runnable -> new Thread(runnable, "public-recipe-snapshot"),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    private volatile Snapshot snapshot;
+    /** The catalog version read before the recipes of the current snapshot. */
+    private volatile long builtVersion;
+
+    public PublicRecipeSnapshotService(RecipeRepository recipeRepository, ObjectMapper objectMapper) {
+        this.recipeRepository = recipeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    /**
+     * Rebuilds the snapshot if recipes have changed since it was built, on this instance or another.
+     */
+    @Scheduled(fixedDelayString = "${app.recipes.public-snapshot.version-check-interval-ms:5000}")
+    public void checkVersion() {
+        try {
+            if (recipeRepository.getCatalogVersion() != builtVersion) {
+                scheduleRebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Unable to check the recipe catalog version", e);
+        }
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void scheduleRebuild() {
+        rebuildExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Unable to rebuild the public recipe snapshot, serving the previous one", e);
+            }
+        });
+    }
+
+    private void rebuild() throws IOException {
+        // read first, so a change committed while loading leaves the version stale and triggers another rebuild
+        long version = recipeRepository.getCatalogVersion();
+        List<Recipe> recipes = recipeRepository.findByDisabled(false);
+        byte[] json = objectMapper.writeValueAsBytes(recipes);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        }
+        snapshot = new Snapshot(recipes.isEmpty(), json, gzipped.toByteArray(), etagOf(json));
+        builtVersion = version;
+        logger.debug("Rebuilt public recipe snapshot with {} recipes", recipes.size());
+    }
+
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * An immutable version of the public recipe list.
+     * The gzip form is a different representation, so it gets its own strong ETag.
+     */
+    public static final class Snapshot {
+        private final boolean empty;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        private Snapshot(boolean empty, byte[] json, byte[] gzip, String hash) {
+            this.empty = empty;
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        }
+
+        public boolean isEmpty() {
+            return empty;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getEtag(boolean gzipped) {
+            return gzipped ? gzipEtag : etag;
+        }
+
+        /**
+         * @param ifNoneMatch The If-None-Match header of the request, may be null
+         * @return Whether the client already holds either representation of this snapshot
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                // If-None-Match uses weak comparison, and proxies may weaken the tag after re-encoding
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag) || candidate.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
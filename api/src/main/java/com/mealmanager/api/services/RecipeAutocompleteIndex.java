@@ -0,0 +1,371 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.dto.RecipeSuggestionDTO;
+import com.mealmanager.api.util.LongIntHashMap;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable autocomplete index over recipe names.
+ * Prefix matches come from a sorted array holding every word-start suffix of every name, so
+ * "cu" and "chicken cu" both find "Chicken Curry" with a binary search. Typos are tolerated by
+ * trigram posting lists: a name matches when it contains most of the query's trigrams.
+ * Queries keep only the best {@code limit} matches: the suffix range is scanned until {@code limit}
+ * names starting with the query are found, and the posting lists, whose matches rank below every
+ * prefix match, are only read when the prefix matches do not fill the list.
+ *
+ * <p>Changes produce a new index sharing the large base segment: changed recipes go into a small
+ * delta segment and hide their base entries, and the two are merged into a new base only once the
+ * delta has grown to a fraction of the base.
+ */
+final class RecipeAutocompleteIndex {
+
+    static final RecipeAutocompleteIndex EMPTY = build(Map.of());
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+    private static final double NAME_PREFIX_SCORE = 3;
+    private static final double WORD_PREFIX_SCORE = 2;
+    private static final double MIN_TRIGRAM_CONTAINMENT = 0.5;
+    /** The delta is merged into the base once it holds more changes than this, or an eighth of the base. */
+    private static final int MIN_MERGE_SIZE = 64;
+
+    private final Segment base;
+    private final Segment delta;
+    /** Ids of base entries that were changed or removed since the base was built. */
+    private final Set<Long> hidden;
+
+    private RecipeAutocompleteIndex(Segment base, Segment delta, Set<Long> hidden) {
+        this.base = base;
+        this.delta = delta;
+        this.hidden = hidden;
+    }
+
+    /**
+     * @param recipeNames The names of the recipes to index, by recipe id
+     * @return The index
+     */
+    static RecipeAutocompleteIndex build(Map<Long, String> recipeNames) {
+        return new RecipeAutocompleteIndex(new Segment(recipeNames), new Segment(Map.of()), Set.of());
+    }
+
+    /**
+     * @param saved The names of created or renamed recipes, by recipe id
+     * @param removed The ids of deleted or disabled recipes
+     * @return An index with the changes applied; this index is left unchanged
+     */
+    RecipeAutocompleteIndex withChanges(Map<Long, String> saved, Collection<Long> removed) {
+        Map<Long, String> deltaNames = delta.toMap();
+        Set<Long> nextHidden = new HashSet<>(hidden);
+        for (Long id : removed) {
+            deltaNames.remove(id);
+            if (base.contains(id)) {
+                nextHidden.add(id);
+            }
+        }
+        for (Map.Entry<Long, String> recipe : saved.entrySet()) {
+            deltaNames.put(recipe.getKey(), recipe.getValue());
+            if (base.contains(recipe.getKey())) {
+                nextHidden.add(recipe.getKey());
+            }
+        }
+
+        if (deltaNames.size() + nextHidden.size() > Math.max(MIN_MERGE_SIZE, base.size() / 8)) {
+            Map<Long, String> merged = base.toMap();
+            merged.keySet().removeAll(nextHidden);
+            merged.putAll(deltaNames);
+            return build(merged);
+        }
+        return new RecipeAutocompleteIndex(base, new Segment(deltaNames), nextHidden);
+    }
+
+    int size() {
+        return base.size() - hidden.size() + delta.size();
+    }
+
+    /**
+     * Finds the best matching recipes: names starting with the query first, then names with a
+     * word starting with the query, then names that fuzzily match it.
+     *
+     * @param query The text typed so far
+     * @param limit The maximum number of suggestions
+     * @return Up to {@code limit} suggestions, best first
+     */
+    List<RecipeSuggestionDTO> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || size() == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        TopMatches top = new TopMatches(limit);
+        LongIntHashMap basePrefixMatches = base.collectPrefixMatches(normalized, hidden, top);
+        LongIntHashMap deltaPrefixMatches = delta.collectPrefixMatches(normalized, Set.of(), top);
+        if (!top.isFull()) {
+            Set<String> queryTrigrams = trigrams(normalized);
+            base.collectFuzzyMatches(queryTrigrams, hidden, basePrefixMatches, top);
+            delta.collectFuzzyMatches(queryTrigrams, Set.of(), deltaPrefixMatches, top);
+        }
+        return top.toSuggestions();
+    }
+
+    /**
+     * Lower-cases the text, strips accents and collapses everything but letters and digits into single spaces.
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String plain = DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return NON_ALPHANUMERIC.matcher(plain).replaceAll(" ").trim();
+    }
+
+    private static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            // pad so the start of each word forms its own trigrams, as pg_trgm does
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Suffix array and trigram postings over a fixed set of names. Entries are numbered in id order,
+     * so posting lists are sorted and ids can be looked up with a binary search.
+     */
+    private static final class Segment {
+        private static final int[] NO_ENTRIES = new int[0];
+
+        private final long[] ids;
+        private final String[] names;
+        private final String[] normalizedNames;
+
+        /** Word-start suffixes of the normalized names, sorted, with the entry each one belongs to. */
+        private final String[] suffixes;
+        private final int[] suffixEntries;
+
+        /** Entries containing each trigram in ascending order, and the number of distinct trigrams per entry. */
+        private final Map<String, int[]> trigramPostings;
+        private final int[] trigramCounts;
+
+        private Segment(Map<Long, String> recipeNames) {
+            int size = recipeNames.size();
+            ids = new long[size];
+            names = new String[size];
+            normalizedNames = new String[size];
+            trigramCounts = new int[size];
+            List<String[]> suffixPairs = new ArrayList<>();
+            Map<String, List<Integer>> postings = new HashMap<>();
+
+            int entry = 0;
+            for (Map.Entry<Long, String> recipe : new TreeMap<>(recipeNames).entrySet()) {
+                ids[entry] = recipe.getKey();
+                names[entry] = recipe.getValue();
+                String normalized = normalize(recipe.getValue());
+                normalizedNames[entry] = normalized;
+                for (int start = 0; start < normalized.length(); start++) {
+                    if (start == 0 || normalized.charAt(start - 1) == ' ') {
+                        suffixPairs.add(new String[]{normalized.substring(start), String.valueOf(entry)});
+                    }
+                }
+                Set<String> trigrams = trigrams(normalized);
+                trigramCounts[entry] = trigrams.size();
+                for (String trigram : trigrams) {
+                    postings.computeIfAbsent(trigram, t -> new ArrayList<>()).add(entry);
+                }
+                entry++;
+            }
+
+            suffixPairs.sort(Comparator.comparing(pair -> pair[0]));
+            suffixes = new String[suffixPairs.size()];
+            suffixEntries = new int[suffixPairs.size()];
+            for (int i = 0; i < suffixes.length; i++) {
+                suffixes[i] = suffixPairs.get(i)[0];
+                suffixEntries[i] = Integer.parseInt(suffixPairs.get(i)[1]);
+            }
+
+            trigramPostings = new HashMap<>(postings.size() * 2);
+            postings.forEach((trigram, entries) -> trigramPostings.put(trigram, entries.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, id) >= 0;
+        }
+
+        private Map<Long, String> toMap() {
+            Map<Long, String> map = new LinkedHashMap<>(ids.length * 2);
+            for (int entry = 0; entry < ids.length; entry++) {
+                map.put(ids[entry], names[entry]);
+            }
+            return map;
+        }
+
+        /**
+         * Offers the entries with a name or a word starting with the query, except hidden ones.
+         * Name-start suffixes come in name order, so once {@code limit} names starting with the query
+         * have been seen, no later entry can rank among the best.
+         *
+         * @return The entries offered, so fuzzy matching can skip them
+         */
+        private LongIntHashMap collectPrefixMatches(String normalized, Set<Long> hidden, TopMatches top) {
+            LongIntHashMap offered = new LongIntHashMap();
+            int namePrefixMatches = 0;
+            for (int i = lowerBound(normalized); i < suffixes.length && suffixes[i].startsWith(normalized); i++) {
+                int entry = suffixEntries[i];
+                if (hidden.contains(ids[entry])) {
+                    continue;
+                }
+                if (!offered.containsKey(entry)) {
+                    // a word suffix may come first, but the score is the one of the whole name
+                    offered.put(entry, 1);
+                    boolean namePrefix = normalizedNames[entry].startsWith(normalized);
+                    top.offer(ids[entry], names[entry], normalizedNames[entry], namePrefix ? NAME_PREFIX_SCORE : WORD_PREFIX_SCORE);
+                }
+                if (isNameSuffix(i) && ++namePrefixMatches == top.limit) {
+                    break;
+                }
+            }
+            return offered;
+        }
+
+        /**
+         * Offers the entries holding at least half of the query's trigrams, except hidden and already offered ones.
+         */
+        private void collectFuzzyMatches(Set<String> queryTrigrams, Set<Long> hidden, LongIntHashMap offered, TopMatches top) {
+            if (ids.length == 0) {
+                return;
+            }
+            int required = (int) Math.ceil(queryTrigrams.size() * MIN_TRIGRAM_CONTAINMENT);
+            List<int[]> lists = new ArrayList<>(queryTrigrams.size());
+            for (String trigram : queryTrigrams) {
+                lists.add(trigramPostings.getOrDefault(trigram, NO_ENTRIES));
+            }
+            lists.sort(Comparator.comparingInt(entries -> entries.length));
+            // an entry holding the required number of query trigrams is in at least one of the shortest
+            // (lists - required + 1) lists; only those are scanned, the others are probed per candidate
+            int scanned = lists.size() - required + 1;
+            LongIntHashMap common = new LongIntHashMap();
+            for (int i = 0; i < scanned; i++) {
+                for (int entry : lists.get(i)) {
+                    common.addTo(entry, 1);
+                }
+            }
+            common.forEach((candidate, scannedCount) -> {
+                int entry = (int) candidate;
+                if (offered.containsKey(entry) || hidden.contains(ids[entry])) {
+                    return;
+                }
+                int count = scannedCount;
+                for (int i = scanned; i < lists.size(); i++) {
+                    if (Arrays.binarySearch(lists.get(i), entry) >= 0) {
+                        count++;
+                    }
+                }
+                double containment = (double) count / queryTrigrams.size();
+                if (containment >= MIN_TRIGRAM_CONTAINMENT) {
+                    // break ties between fuzzy matches in favour of names closer in length to the query
+                    double dice = 2.0 * count / (queryTrigrams.size() + trigramCounts[entry]);
+                    top.offer(ids[entry], names[entry], normalizedNames[entry], containment * 0.9 + dice * 0.1);
+                }
+            });
+        }
+
+        /**
+         * @return Whether the suffix at this position is the whole normalized name of its entry
+         */
+        private boolean isNameSuffix(int position) {
+            return suffixes[position].length() == normalizedNames[suffixEntries[position]].length();
+        }
+
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = suffixes.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (suffixes[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class Match {
+        private final long id;
+        private final String name;
+        private final String normalizedName;
+        private final double score;
+
+        private Match(long id, String name, String normalizedName, double score) {
+            this.id = id;
+            this.name = name;
+            this.normalizedName = normalizedName;
+            this.score = score;
+        }
+    }
+
+    /**
+     * The best {@code limit} matches offered so far, in a min-heap whose root is the weakest of them.
+     * Matches rank by score, then alphabetically.
+     */
+    private static final class TopMatches {
+        private static final Comparator<Match> RANKING = Comparator.comparingDouble((Match match) -> match.score).reversed()
+                .thenComparing(match -> match.normalizedName)
+                .thenComparingLong(match -> match.id);
+
+        private final int limit;
+        private final PriorityQueue<Match> heap;
+
+        private TopMatches(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit, RANKING.reversed());
+        }
+
+        private boolean isFull() {
+            return heap.size() == limit;
+        }
+
+        private void offer(long id, String name, String normalizedName, double score) {
+            Match match = new Match(id, name, normalizedName, score);
+            if (heap.size() < limit) {
+                heap.add(match);
+            } else if (RANKING.compare(match, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(match);
+            }
+        }
+
+        private List<RecipeSuggestionDTO> toSuggestions() {
+            List<Match> best = new ArrayList<>(heap);
+            best.sort(RANKING);
+            List<RecipeSuggestionDTO> suggestions = new ArrayList<>(best.size());
+            for (Match match : best) {
+                suggestions.add(new RecipeSuggestionDTO(match.id, match.name));
+            }
+            return suggestions;
+        }
+    }
+}
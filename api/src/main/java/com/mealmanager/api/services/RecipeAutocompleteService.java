@@ -0,0 +1,99 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.dto.RecipeSuggestionDTO;
+import com.mealmanager.api.events.RecipeChangedEvent;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.repository.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service that answers recipe autocomplete queries from an in-memory index of enabled recipes.
+ * The index is loaded at startup and each {@link RecipeChangedEvent} is applied to it as a
+ * change of the affected recipes only, so suggestions never query the database. Changes made
+ * through other instances are picked up by reloading the index when the recipe catalog version moves.
+ */
+@Service
+public class RecipeAutocompleteService {
+
+    private final Logger logger = LoggerFactory.getLogger(RecipeAutocompleteService.class);
+
+    private final RecipeRepository recipeRepository;
+
+    /** Only replaced while holding the lock on this service. */
+    private volatile RecipeAutocompleteIndex index = RecipeAutocompleteIndex.EMPTY;
+    /** The recipe catalog version read before the recipes of the last load. */
+    private volatile long loadedVersion;
+
+    public RecipeAutocompleteService(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        // read first, so a change committed during the load moves the version past it and triggers another load
+        long version = recipeRepository.getCatalogVersion();
+        Map<Long, String> recipeNames = new HashMap<>();
+        for (Recipe recipe : recipeRepository.findByDisabled(false)) {
+            recipeNames.put(recipe.getId(), recipe.getName());
+        }
+        index = RecipeAutocompleteIndex.build(recipeNames);
+        loadedVersion = version;
+        logger.info("Loaded {} recipes into the autocomplete index", index.size());
+    }
+
+    /**
+     * Reloads the index if recipes have changed since it was loaded, on this instance or another.
+     */
+    @Scheduled(fixedDelayString = "${app.recipes.autocomplete.version-check-interval-ms:5000}")
+    public void checkVersion() {
+        try {
+            if (recipeRepository.getCatalogVersion() != loadedVersion) {
+                load();
+            }
+        } catch (Exception e) {
+            logger.error("Unable to reload the autocomplete index", e);
+        }
+    }
+
+    @EventListener
+    public synchronized void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.isReloadRequired()) {
+            load();
+            return;
+        }
+        if (event.isAllDeleted()) {
+            index = RecipeAutocompleteIndex.EMPTY;
+        }
+        Map<Long, String> saved = new HashMap<>();
+        List<Long> removed = new ArrayList<>(event.getDeletedRecipeIds());
+        for (Recipe recipe : event.getSavedRecipes()) {
+            if (recipe.getDisabled()) {
+                removed.add(recipe.getId());
+            } else {
+                saved.put(recipe.getId(), recipe.getName());
+            }
+        }
+        if (!saved.isEmpty() || !removed.isEmpty()) {
+            index = index.withChanges(saved, removed);
+        }
+    }
+
+    /**
+     * @param query The text typed so far
+     * @param limit The maximum number of suggestions
+     * @return Up to {@code limit} enabled recipes matching the query, best first
+     */
+    public List<RecipeSuggestionDTO> suggest(String query, int limit) {
+        return index.suggest(query, limit);
+    }
+}
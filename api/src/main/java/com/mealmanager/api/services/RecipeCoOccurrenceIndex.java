@@ -0,0 +1,165 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse recipe-to-recipe co-occurrence matrix: for every recipe, how many orders included it
+ * together with each other recipe. Each row is a primitive long-to-int map, and rows are found
+ * through another primitive map from recipe id to row, so nothing is boxed while building.
+ * Not thread-safe.
+ */
+final class RecipeCoOccurrenceIndex {
+
+    private static final int NO_ROW = -1;
+
+    private final LongIntHashMap rowOfRecipe = new LongIntHashMap();
+    private LongIntHashMap[] rows = new LongIntHashMap[16];
+    private long[] orderRecipes = new long[16];
+
+    /**
+     * Counts every pair of distinct recipes in one order.
+     *
+     * @param recipeIds The recipes of the order, duplicates are ignored
+     * @param length The number of recipe ids to read from the array
+     */
+    void addOrder(long[] recipeIds, int length) {
+        if (orderRecipes.length < length) {
+            orderRecipes = new long[Math.max(length, orderRecipes.length * 2)];
+        }
+        System.arraycopy(recipeIds, 0, orderRecipes, 0, length);
+        Arrays.sort(orderRecipes, 0, length);
+        int distinct = 0;
+        for (int i = 0; i < length; i++) {
+            if (i == 0 || orderRecipes[i] != orderRecipes[i - 1]) {
+                orderRecipes[distinct++] = orderRecipes[i];
+            }
+        }
+
+        for (int i = 0; i < distinct; i++) {
+            LongIntHashMap row = rowFor(orderRecipes[i]);
+            for (int j = 0; j < distinct; j++) {
+                if (i != j) {
+                    row.addTo(orderRecipes[j], 1);
+                }
+            }
+        }
+    }
+
+    void addOrder(List<Long> recipeIds) {
+        long[] ids = new long[recipeIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = recipeIds.get(i);
+        }
+        addOrder(ids, ids.length);
+    }
+
+    /**
+     * @return The number of recipes ordered together with at least one other recipe
+     */
+    int size() {
+        return rowOfRecipe.size();
+    }
+
+    /**
+     * Finds the recipes most often ordered together with a recipe.
+     *
+     * @param recipeId The recipe
+     * @param limit The maximum number of recipes to return
+     * @return Up to {@code limit} recipe ids with the number of orders shared with the recipe,
+     *         most shared first and by id among equals
+     */
+    List<Map.Entry<Long, Long>> top(long recipeId, int limit) {
+        int rowIndex = rowOfRecipe.get(recipeId, NO_ROW);
+        if (rowIndex == NO_ROW || limit <= 0) {
+            return List.of();
+        }
+
+        // bounded min-heap on parallel arrays, its root being the weakest of the best so far
+        long[] heapIds = new long[limit];
+        int[] heapCounts = new int[limit];
+        int[] heapSize = {0};
+        rows[rowIndex].forEach((otherId, count) -> {
+            if (heapSize[0] < limit) {
+                heapIds[heapSize[0]] = otherId;
+                heapCounts[heapSize[0]] = count;
+                siftUp(heapIds, heapCounts, heapSize[0]++);
+            } else if (ranksBefore(otherId, count, heapIds[0], heapCounts[0])) {
+                heapIds[0] = otherId;
+                heapCounts[0] = count;
+                siftDown(heapIds, heapCounts, heapSize[0]);
+            }
+        });
+
+        // the heap yields the weakest first, so the list is built in reverse
+        List<Map.Entry<Long, Long>> best = new ArrayList<>(heapSize[0]);
+        for (int size = heapSize[0]; size > 0; size--) {
+            best.add(Map.entry(heapIds[0], (long) heapCounts[0]));
+            heapIds[0] = heapIds[size - 1];
+            heapCounts[0] = heapCounts[size - 1];
+            siftDown(heapIds, heapCounts, size - 1);
+        }
+        Collections.reverse(best);
+        return best;
+    }
+
+    private LongIntHashMap rowFor(long recipeId) {
+        int rowIndex = rowOfRecipe.get(recipeId, NO_ROW);
+        if (rowIndex != NO_ROW) {
+            return rows[rowIndex];
+        }
+        rowIndex = rowOfRecipe.size();
+        if (rowIndex == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        rows[rowIndex] = new LongIntHashMap(4);
+        rowOfRecipe.put(recipeId, rowIndex);
+        return rows[rowIndex];
+    }
+
+    private static boolean ranksBefore(long id, int count, long otherId, int otherCount) {
+        return count != otherCount ? count > otherCount : id < otherId;
+    }
+
+    private static void siftUp(long[] ids, int[] counts, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!ranksBefore(ids[parent], counts[parent], ids[index], counts[index])) {
+                return;
+            }
+            swap(ids, counts, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] ids, int[] counts, int size) {
+        int index = 0;
+        while (true) {
+            int weakest = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (ranksBefore(ids[weakest], counts[weakest], ids[child], counts[child])) {
+                    weakest = child;
+                }
+            }
+            if (weakest == index) {
+                return;
+            }
+            swap(ids, counts, index, weakest);
+            index = weakest;
+        }
+    }
+
+    private static void swap(long[] ids, int[] counts, int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        int count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+    }
+}
@@ -0,0 +1,259 @@
+package com.mealmanager.api.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads recipes for a bulk import one row at a time, so only the current row is held in memory.
+ * CSV input may start with a header naming its columns (name, description, recipeurl, disabled);
+ * without one the columns are read in that order. NDJSON input holds one recipe object per line.
+ * Rows that cannot be parsed or fail validation are returned with an error instead of a recipe.
+ */
+abstract class RecipeImportReader {
+
+    static final int MAX_NAME_LENGTH = 255;
+    static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    /** Longest CSV field accepted; longer ones are most likely a quote that was never closed. */
+    private static final int MAX_FIELD_LENGTH = 65536;
+
+    protected final BufferedReader reader;
+    protected long rowNumber;
+
+    private RecipeImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    static RecipeImportReader csv(BufferedReader reader) {
+        return new Csv(reader);
+    }
+
+    static RecipeImportReader ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new Ndjson(reader, objectMapper);
+    }
+
+    /**
+     * @return The next row, or null at the end of the input
+     * @throws IOException if reading the input fails
+     */
+    abstract Row next() throws IOException;
+
+    private static Row validate(long number, String name, String description, String recipeUrl, String disabled) {
+        String trimmedName = name == null ? "" : name.trim();
+        if (trimmedName.isEmpty()) {
+            return Row.error(number, "Name is required");
+        }
+        if (trimmedName.length() > MAX_NAME_LENGTH) {
+            return Row.error(number, "Name is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        String trimmedDescription = emptyToNull(description);
+        if (trimmedDescription != null && trimmedDescription.length() > MAX_DESCRIPTION_LENGTH) {
+            return Row.error(number, "Description is longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+        String trimmedDisabled = disabled == null ? "" : disabled.trim().toLowerCase(Locale.ROOT);
+        if (!trimmedDisabled.isEmpty() && !trimmedDisabled.equals("true") && !trimmedDisabled.equals("false")) {
+            return Row.error(number, "Disabled must be true or false");
+        }
+        return new Row(number, trimmedName, trimmedDescription, emptyToNull(recipeUrl), trimmedDisabled.equals("true"), null);
+    }
+
+    private static String emptyToNull(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    /**
+     * A recipe to import, or the reason a row of the input cannot be imported.
+     */
+    static final class Row {
+        final long number;
+        final String name;
+        final String description;
+        final String recipeUrl;
+        final boolean disabled;
+        final String error;
+
+        private Row(long number, String name, String description, String recipeUrl, boolean disabled, String error) {
+            this.number = number;
+            this.name = name;
+            this.description = description;
+            this.recipeUrl = recipeUrl;
+            this.disabled = disabled;
+            this.error = error;
+        }
+
+        private static Row error(long number, String error) {
+            return new Row(number, null, null, null, false, error);
+        }
+
+        boolean isValid() {
+            return error == null;
+        }
+    }
+
+    private static final class Csv extends RecipeImportReader {
+        private static final String[] DEFAULT_COLUMNS = {"name", "description", "recipeurl", "disabled"};
+
+        private String[] columns = DEFAULT_COLUMNS;
+        private boolean malformed;
+
+        private Csv(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        Row next() throws IOException {
+            while (!malformed) {
+                List<String> fields;
+                try {
+                    fields = readRecord();
+                } catch (IllegalStateException e) {
+                    // the rest of the input cannot be split into rows reliably, so stop here
+                    malformed = true;
+                    return Row.error(rowNumber, e.getMessage());
+                }
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() == 1 && fields.get(0).trim().isEmpty()) {
+                    continue;
+                }
+                if (rowNumber == 1 && isHeader(fields)) {
+                    columns = fields.stream().map(field -> field.trim().toLowerCase(Locale.ROOT)).toArray(String[]::new);
+                    continue;
+                }
+                if (fields.size() > columns.length) {
+                    return Row.error(rowNumber, "Expected at most " + columns.length + " fields but found " + fields.size());
+                }
+                return validate(rowNumber, field(fields, "name"), field(fields, "description"),
+                        field(fields, "recipeurl"), field(fields, "disabled"));
+            }
+            return null;
+        }
+
+        /**
+         * A header names only known columns and includes the name column.
+         */
+        private static boolean isHeader(List<String> fields) {
+            List<String> known = List.of(DEFAULT_COLUMNS);
+            boolean hasName = false;
+            for (String field : fields) {
+                String column = field.trim().toLowerCase(Locale.ROOT);
+                if (!known.contains(column)) {
+                    return false;
+                }
+                hasName |= column.equals("name");
+            }
+            return hasName;
+        }
+
+        private String field(List<String> fields, String column) {
+            for (int i = 0; i < columns.length && i < fields.size(); i++) {
+                if (columns[i].equals(column)) {
+                    return fields.get(i);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Reads one RFC 4180 record; quoted fields may contain commas, doubled quotes and line breaks.
+         */
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean read = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (!read) {
+                    read = true;
+                    rowNumber++;
+                }
+                if (field.length() > MAX_FIELD_LENGTH) {
+                    throw new IllegalStateException("Field is longer than " + MAX_FIELD_LENGTH + " characters");
+                }
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            if (quoted) {
+                throw new IllegalStateException("Quoted field is never closed");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class Ndjson extends RecipeImportReader {
+        private final ObjectMapper objectMapper;
+
+        private Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Row next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rowNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    return Row.error(rowNumber, "Invalid JSON: " + e.getOriginalMessage());
+                }
+                if (!node.isObject()) {
+                    return Row.error(rowNumber, "Expected a JSON object");
+                }
+                JsonNode disabled = node.path("disabled");
+                if (!disabled.isMissingNode() && !disabled.isNull() && !disabled.isBoolean()) {
+                    return Row.error(rowNumber, "Disabled must be true or false");
+                }
+                return validate(rowNumber, text(node, "name"), text(node, "description"),
+                        text(node, "recipeURL"), disabled.isBoolean() ? disabled.asText() : null);
+            }
+            return null;
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.mealmanager.api.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mealmanager.api.dto.RecipeImportReportDTO;
+import com.mealmanager.api.events.RecipeChangedEvent;
+import com.mealmanager.api.model.Recipe;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Service that imports recipes in bulk from a CSV or NDJSON stream.
+ * The input is parsed one row at a time and written in fixed-size chunks, each inserted as one
+ * JDBC batch and committed on its own, so memory use does not grow with the size of the import
+ * and a bad row only costs its own chunk a retry. Rows that cannot be imported are reported back.
+ */
+@Service
+public class RecipeImportService {
+
+    /**
+     * Matches the allocationSize of the recipe id generator: like Hibernate's pooled optimizer,
+     * each nextval reserves the block of ids ending at the value it returns.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final String ALLOCATE_ID_BLOCKS_SQL = "SELECT nextval('recipe_id_seq') FROM generate_series(1, ?)";
+    private static final String INSERT_RECIPE_SQL =
+            "INSERT INTO recipe (id, name, description, recipeurl, disabled) VALUES (?, ?, ?, ?, ?)";
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * @param value The format name from the request, case insensitive
+         * @return The matching format
+         * @throws IllegalArgumentException if the format is not supported
+         */
+        public static Format parse(String value) {
+            return Format.valueOf(value.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(RecipeImportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final SessionFactory sessionFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public RecipeImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            EntityManagerFactory entityManagerFactory,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.recipes.import.chunk-size:500}") int chunkSize,
+            @Value("${app.recipes.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports every valid row of the input. Chunks committed before a failure stay imported.
+     *
+     * @param format The format of the input
+     * @param in The input, UTF-8 encoded; it is read to the end but not closed
+     * @return How many rows were imported and which rows were not
+     * @throws IOException if reading the input fails
+     */
+    public RecipeImportReportDTO importRecipes(Format format, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RecipeImportReader rows = format == Format.CSV
+                ? RecipeImportReader.csv(reader)
+                : RecipeImportReader.ndjson(reader, objectMapper);
+        ImportProgress progress = new ImportProgress();
+        List<RecipeImportReader.Row> chunk = new ArrayList<>(chunkSize);
+        try {
+            RecipeImportReader.Row row;
+            while ((row = rows.next()) != null) {
+                if (!row.isValid()) {
+                    progress.fail(row.number, row.error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, progress);
+            }
+        } finally {
+            if (progress.imported > 0) {
+                eventPublisher.publishEvent(RecipeChangedEvent.reloadRequired());
+            }
+        }
+        logger.info("Imported {} recipes, {} rows failed", progress.imported, progress.failed);
+        return new RecipeImportReportDTO(progress.imported, progress.failed, progress.errors);
+    }
+
+    private void writeChunk(List<RecipeImportReader.Row> chunk, ImportProgress progress) {
+        // ids are taken outside the transaction: sequences are not rolled back, so a retry reuses them
+        long[] ids = allocateIds(chunk.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(chunk, ids, 0, chunk.size()));
+            progress.imported += chunk.size();
+        } catch (DataAccessException e) {
+            // one bad row rolls back the whole chunk, so retry the rows one at a time
+            logger.warn("Recipe import chunk of {} rows failed, inserting rows individually", chunk.size(), e);
+            for (int i = 0; i < chunk.size(); i++) {
+                int index = i;
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(chunk, ids, index, index + 1));
+                    progress.imported++;
+                } catch (DataAccessException rowException) {
+                    logger.debug("Recipe import row {} failed", chunk.get(index).number, rowException);
+                    progress.fail(chunk.get(index).number, "Could not be saved");
+                }
+            }
+        }
+        // the inserts bypass Hibernate, so cached recipe queries would not see them
+        sessionFactory.getCache().evictQueryRegion(Recipe.QUERY_CACHE_REGION);
+    }
+
+    private long[] allocateIds(int count) {
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> blockEnds = jdbcTemplate.queryForList(ALLOCATE_ID_BLOCKS_SQL, Long.class, blocks);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = blockEnds.get(i / ID_BLOCK_SIZE) - ID_BLOCK_SIZE + 1 + i % ID_BLOCK_SIZE;
+        }
+        return ids;
+    }
+
+    private void insert(List<RecipeImportReader.Row> rows, long[] ids, int from, int to) {
+        List<Object[]> batch = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            RecipeImportReader.Row row = rows.get(i);
+            batch.add(new Object[]{ids[i], row.name, row.description, row.recipeUrl, row.disabled});
+        }
+        jdbcTemplate.batchUpdate(INSERT_RECIPE_SQL, batch);
+    }
+
+    private final class ImportProgress {
+        private long imported;
+        private long failed;
+        private final List<RecipeImportReportDTO.RowError> errors = new ArrayList<>();
+
+        private void fail(long row, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RecipeImportReportDTO.RowError(row, message));
+            }
+        }
+    }
+}
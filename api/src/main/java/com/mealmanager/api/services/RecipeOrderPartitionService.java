@@ -0,0 +1,143 @@
+package com.mealmanager.api.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Service that maintains the monthly partitions of recipeorder.
+ * Partitions for the coming months are created ahead of time so new orders never land in the
+ * default partition; orders that did land there are moved into the new partition. When a retention
+ * is configured, partitions older than it are detached: they stay in the database as standalone
+ * tables but are no longer part of recipeorder. The items and recipients of their orders are moved
+ * to matching archive tables and their recipes' order counts are lowered, so popularity,
+ * recommendations and exports stop counting them.
+ */
+@Service
+public class RecipeOrderPartitionService {
+
+    private static final String PARTITION_PREFIX = "recipeorder_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String ATTACHED_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'public.recipeorder'::regclass AND c.relname ~ '^recipeorder_p[0-9]{6}$'";
+    /** Serializes partition maintenance across instances, for the duration of each transaction. */
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('recipeorder_partitions'))";
+
+    private final Logger logger = LoggerFactory.getLogger(RecipeOrderPartitionService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public RecipeOrderPartitionService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.orders.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${app.orders.partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.partitions.interval-ms:86400000}")
+    public void maintainPartitions() {
+        try {
+            YearMonth currentMonth = YearMonth.now();
+            createPartitions(currentMonth, currentMonth.plusMonths(monthsAhead));
+            if (retentionMonths > 0) {
+                detachPartitionsBefore(currentMonth.minusMonths(retentionMonths));
+            }
+        } catch (Exception e) {
+            logger.error("Unable to maintain recipeorder partitions, will retry", e);
+        }
+    }
+
+    /**
+     * Creates the monthly partitions in the given range that do not exist yet.
+     * Orders of those months already in the default partition are moved into the new partition,
+     * since Postgres refuses to create a partition whose range the default partition holds rows of.
+     *
+     * @param from The first month, inclusive
+     * @param to The last month, inclusive
+     */
+    public void createPartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            YearMonth partitionMonth = month;
+            transactionTemplate.executeWithoutResult(status -> createPartition(partitionMonth));
+        }
+    }
+
+    /**
+     * Detaches the monthly partitions that end before the given month and archives the items and
+     * recipients of their orders.
+     *
+     * @param cutoff Partitions for months before this one are detached
+     * @return The names of the detached partitions
+     */
+    public List<String> detachPartitionsBefore(YearMonth cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(ATTACHED_PARTITIONS_SQL, String.class);
+        partitions.removeIf(name -> !YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX).isBefore(cutoff));
+        for (String partition : partitions) {
+            transactionTemplate.executeWithoutResult(status -> detachPartition(partition));
+            logger.info("Detached recipeorder partition {} and archived its order items and recipients", partition);
+        }
+        return partitions;
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        jdbcTemplate.execute(LOCK_SQL);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, "public." + partition)) {
+            return;
+        }
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        // built standalone, filled from the default partition, then attached, which creates its indexes
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE public.%s (LIKE public.recipeorder INCLUDING DEFAULTS INCLUDING CONSTRAINTS)", partition));
+        int moved = jdbcTemplate.update(String.format(
+                "WITH moved AS (DELETE FROM public.recipeorder_default WHERE createdat >= '%s' AND createdat < '%s' RETURNING *) "
+                + "INSERT INTO public.%s SELECT * FROM moved", from, to, partition));
+        jdbcTemplate.execute(String.format(
+                "ALTER TABLE public.recipeorder ATTACH PARTITION public.%s FOR VALUES FROM ('%s') TO ('%s')", partition, from, to));
+        if (moved > 0) {
+            logger.info("Created recipeorder partition {} and moved {} orders into it from the default partition", partition, moved);
+        }
+    }
+
+    private void detachPartition(String partition) {
+        String suffix = partition.substring(PARTITION_PREFIX.length());
+        jdbcTemplate.execute(LOCK_SQL);
+        jdbcTemplate.execute("ALTER TABLE public.recipeorder DETACH PARTITION public." + partition);
+        // the archive tables are named like the detached partition, e.g. recipeorderitem_p202401
+        for (String child : List.of("recipeorderitem", "recipeorderrecipient")) {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE public.%1$s_p%2$s AS SELECT c.* FROM public.%1$s c WHERE c.orderid IN (SELECT id FROM public.%3$s)",
+                    child, suffix, partition));
+        }
+        jdbcTemplate.update(String.format(
+                "UPDATE public.recipe_stats s SET order_count = GREATEST(s.order_count - a.orders, 0) "
+                + "FROM (SELECT recipeid, COUNT(*) AS orders FROM public.recipeorderitem_p%s GROUP BY recipeid) a "
+                + "WHERE s.recipeid = a.recipeid", suffix));
+        for (String child : List.of("recipeorderitem", "recipeorderrecipient", "recipeorder_idempotency")) {
+            jdbcTemplate.update(String.format(
+                    "DELETE FROM public.%s WHERE orderid IN (SELECT id FROM public.%s)", child, partition));
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
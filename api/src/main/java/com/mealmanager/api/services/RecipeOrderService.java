@@ -0,0 +1,187 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.dto.EmailTemplateData;
+import com.mealmanager.api.dto.templatedata.GroceryMealOrderData;
+import com.mealmanager.api.events.OrderPlacedEvent;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.RecipeOrder;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.repository.RecipeOrderRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service that persists a recipe order together with its items, recipients and order email.
+ * The order row is written through JPA, while the item and recipient rows are written
+ * as multi-row inserts so the number of statements does not grow with the size of the order.
+ * {@link #placeOrders(List)} writes several orders the same way, with one JDBC batch for the order rows.
+ * The order email goes to the outbox in the same transaction and is published after commit.
+ * An {@link OrderPlacedEvent} is published in the transaction for listeners such as the analytics rollup.
+ */
+@Service
+public class RecipeOrderService {
+
+    private static final String INSERT_ORDER_ITEMS_SQL = "INSERT INTO recipeorderitem (orderid, recipeid) VALUES ";
+    private static final String INSERT_ORDER_RECIPIENTS_SQL = "INSERT INTO recipeorderrecipient (orderid, sysuserid) VALUES ";
+    /** Rows per multi-row insert, well below the bind parameter limit of the driver. */
+    private static final int MAX_ROWS_PER_INSERT = 1000;
+    private static final String INSERT_IDEMPOTENCY_KEY_SQL =
+            "INSERT INTO recipeorder_idempotency (idempotency_key, orderid, createdat, request_hash) VALUES (?, ?, ?, ?)";
+
+    private final RecipeOrderRepository recipeOrderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EmailOutboxService emailOutboxService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RecipeOrderService(
+            RecipeOrderRepository recipeOrderRepository,
+            JdbcTemplate jdbcTemplate,
+            EmailOutboxService emailOutboxService,
+            ApplicationEventPublisher eventPublisher) {
+        this.recipeOrderRepository = recipeOrderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.emailOutboxService = emailOutboxService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Saves a new order, its items, its recipients and its order email in a single transaction.
+     *
+     * @param message The optional message attached to the order
+     * @param recipes The recipes selected for the order
+     * @param users The users that will receive the order
+     * @return The saved order
+     */
+    @Transactional
+    public RecipeOrder placeOrder(String message, List<Recipe> recipes, List<SysUser> users) {
+        return placeOrder(message, recipes, users, null, null);
+    }
+
+    /**
+     * Saves a new order as {@link #placeOrder(String, List, List)} does and records the
+     * idempotency key and the hash of the request in the same transaction. A second order with
+     * the same key fails on the key's primary key, so the whole second order is rolled back.
+     *
+     * @param message The optional message attached to the order
+     * @param recipes The recipes selected for the order
+     * @param users The users that will receive the order
+     * @param idempotencyKey The Idempotency-Key header of the request, or null if none was sent
+     * @param requestHash The {@link OrderIdempotencyService#requestHash} of the request, stored with the key
+     * @return The saved order
+     */
+    @Transactional
+    public RecipeOrder placeOrder(String message, List<Recipe> recipes, List<SysUser> users,
+            String idempotencyKey, String requestHash) {
+        // flush so the order row exists before the inserts reference it
+        RecipeOrder order = recipeOrderRepository.saveAndFlush(new RecipeOrder(message));
+        long orderId = order.getId();
+        if (idempotencyKey != null) {
+            jdbcTemplate.update(INSERT_IDEMPOTENCY_KEY_SQL, idempotencyKey, orderId, order.getCreatedAt(), requestHash);
+        }
+
+        insertDetails(List.of(order), List.of(new NewOrder(message, recipes, users)));
+        return order;
+    }
+
+    /**
+     * Saves several new orders with their items, recipients and order emails in a single transaction.
+     * The order rows go out as one JDBC batch, the items, recipients and emails as multi-row inserts.
+     *
+     * @param newOrders The orders to place
+     * @return The saved orders, in the same order
+     */
+    @Transactional
+    public List<RecipeOrder> placeOrders(List<NewOrder> newOrders) {
+        List<RecipeOrder> orders = new ArrayList<>(newOrders.size());
+        for (NewOrder newOrder : newOrders) {
+            orders.add(new RecipeOrder(newOrder.message));
+        }
+        // flush so the order rows exist before the inserts reference them
+        recipeOrderRepository.saveAll(orders);
+        recipeOrderRepository.flush();
+        insertDetails(orders, newOrders);
+        return orders;
+    }
+
+    private void insertDetails(List<RecipeOrder> orders, List<NewOrder> newOrders) {
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> recipients = new ArrayList<>();
+        List<EmailTemplateData> emails = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            long orderId = orders.get(i).getId();
+            NewOrder newOrder = newOrders.get(i);
+            for (Recipe recipe : newOrder.recipes) {
+                items.add(new Object[] {orderId, recipe.getId()});
+            }
+            for (SysUser user : newOrder.users) {
+                recipients.add(new Object[] {orderId, user.getId()});
+            }
+            emails.add(buildOrderEmail(newOrder.message, newOrder.recipes, newOrder.users));
+        }
+        insertRows(INSERT_ORDER_ITEMS_SQL, items);
+        insertRows(INSERT_ORDER_RECIPIENTS_SQL, recipients);
+        emailOutboxService.enqueueAll(emails);
+
+        for (int i = 0; i < orders.size(); i++) {
+            RecipeOrder order = orders.get(i);
+            NewOrder newOrder = newOrders.get(i);
+            eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), order.getCreatedAt(),
+                    newOrder.recipes.stream().map(Recipe::getId).collect(Collectors.toList()),
+                    newOrder.users.stream().map(SysUser::getId).collect(Collectors.toList())));
+        }
+    }
+
+    /**
+     * Inserts rows of two columns with one statement per {@link #MAX_ROWS_PER_INSERT} rows.
+     */
+    private void insertRows(String insertPrefix, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_INSERT) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + MAX_ROWS_PER_INSERT, rows.size()));
+            StringBuilder sql = new StringBuilder(insertPrefix);
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+                args[2 * i] = chunk.get(i)[0];
+                args[2 * i + 1] = chunk.get(i)[1];
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    private EmailTemplateData buildOrderEmail(String message, List<Recipe> recipes, List<SysUser> users) {
+        GroceryMealOrderData templateData = new GroceryMealOrderData();
+        for (Recipe recipe : recipes) {
+            templateData.addMeal(recipe.getName());
+        }
+        templateData.setMessage(message);
+
+        EmailTemplateData emailData = new EmailTemplateData();
+        for (SysUser user : users) {
+            emailData.addTo(List.of(user.getEmail()));
+        }
+        return emailData.setSubject(templateData.getStandardSubject())
+                .setTemplateName(templateData.getTemplateName())
+                .setTemplateData(templateData);
+    }
+
+    /**
+     * An order to place with {@link #placeOrders(List)}.
+     */
+    public static final class NewOrder {
+        private final String message;
+        private final List<Recipe> recipes;
+        private final List<SysUser> users;
+
+        public NewOrder(String message, List<Recipe> recipes, List<SysUser> users) {
+            this.message = message;
+            this.recipes = recipes;
+            this.users = users;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.events.OrderPlacedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service that counts how many orders included each recipe.
+ * Placed orders increment striped in-memory counters without locking. A scheduled flush writes
+ * the increments since the previous flush to recipe_stats in one batched upsert and reloads the
+ * table, so counts from other instances are picked up too. Reads never touch the database.
+ */
+@Service
+public class RecipePopularityService {
+
+    private static final String UPSERT_RECIPE_STATS_SQL =
+            "INSERT INTO recipe_stats (recipeid, order_count) VALUES (?, ?) "
+            + "ON CONFLICT (recipeid) DO UPDATE SET order_count = recipe_stats.order_count + EXCLUDED.order_count";
+    private static final String SELECT_RECIPE_STATS_SQL = "SELECT recipeid, order_count FROM recipe_stats";
+
+    private final Logger logger = LoggerFactory.getLogger(RecipePopularityService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    public RecipePopularityService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void load() {
+        reloadPersistedCounts();
+    }
+
+    /**
+     * Counts the recipes of an order once the order has committed.
+     *
+     * @param event The placed order
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (Long recipeId : event.getRecipeIds()) {
+            counters.computeIfAbsent(recipeId, id -> new Counter()).increments.increment();
+        }
+    }
+
+    /**
+     * Writes the increments counted since the last flush to recipe_stats.
+     * Counters are never reset; each one remembers how much of it has been flushed, so increments
+     * racing with the flush are simply written by the next one.
+     */
+    @Scheduled(fixedDelayString = "${app.recipes.popularity.flush-interval-ms:10000}")
+    public void flush() {
+        List<Long> recipeIds = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            long delta = counter.increments.sum() - counter.flushed;
+            if (delta > 0) {
+                recipeIds.add(entry.getKey());
+                deltas.add(delta);
+            }
+        }
+
+        try {
+            if (!recipeIds.isEmpty()) {
+                // one transaction, so a failed flush writes nothing and is retried in full
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_RECIPE_STATS_SQL,
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                ps.setLong(1, recipeIds.get(i));
+                                ps.setLong(2, deltas.get(i));
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return recipeIds.size();
+                            }
+                        }));
+                for (int i = 0; i < recipeIds.size(); i++) {
+                    counters.get(recipeIds.get(i)).flushed += deltas.get(i);
+                }
+                logger.debug("Flushed popularity counts for {} recipes", recipeIds.size());
+            }
+            reloadPersistedCounts();
+        } catch (Exception e) {
+            logger.error("Unable to flush recipe popularity counts, will retry", e);
+        }
+    }
+
+    /**
+     * @param recipeId The id of a recipe
+     * @return The number of orders that included the recipe
+     */
+    public long getOrderCount(long recipeId) {
+        Counter counter = counters.get(recipeId);
+        return counter == null ? 0 : counter.total();
+    }
+
+    /**
+     * @param limit The maximum number of recipes to return
+     * @return Up to {@code limit} recipe ids with their order counts, most ordered first
+     */
+    public List<Map.Entry<Long, Long>> getTopRecipes(int limit) {
+        Comparator<Map.Entry<Long, Long>> byCount = Map.Entry.comparingByValue();
+        PriorityQueue<Map.Entry<Long, Long>> top = new PriorityQueue<>(limit + 1, byCount);
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            long total = entry.getValue().total();
+            if (total > 0) {
+                top.add(Map.entry(entry.getKey(), total));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Map.Entry<Long, Long>> result = new ArrayList<>(top);
+        result.sort(byCount.reversed());
+        return result;
+    }
+
+    private void reloadPersistedCounts() {
+        jdbcTemplate.query(SELECT_RECIPE_STATS_SQL, rs -> {
+            Counter counter = counters.computeIfAbsent(rs.getLong("recipeid"), id -> new Counter());
+            counter.persisted = rs.getLong("order_count");
+        });
+    }
+
+    private static final class Counter {
+        /** Orders counted by this instance since startup. */
+        private final LongAdder increments = new LongAdder();
+        /** The part of {@link #increments} already written to recipe_stats, only changed by the flush. */
+        private volatile long flushed;
+        /** The count in recipe_stats when it was last loaded. */
+        private volatile long persisted;
+
+        private long total() {
+            return persisted + increments.sum() - flushed;
+        }
+    }
+}
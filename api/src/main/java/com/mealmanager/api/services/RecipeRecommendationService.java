@@ -0,0 +1,157 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.events.OrderPlacedEvent;
+import com.mealmanager.api.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service that recommends recipes often ordered together with a given recipe.
+ * The co-occurrence counts are built from recipeorderitem at startup and kept in memory, then
+ * updated with every order placed through this instance. A scheduled rebuild from the table
+ * picks up orders placed through other instances.
+ */
+@Service
+public class RecipeRecommendationService {
+
+    private static final String ORDER_ITEMS_SQL = "SELECT orderid, recipeid FROM recipeorderitem ORDER BY orderid";
+
+    private final Logger logger = LoggerFactory.getLogger(RecipeRecommendationService.class);
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Guarded by {@link #lock}. */
+    private RecipeCoOccurrenceIndex index = new RecipeCoOccurrenceIndex();
+    /** Orders counted while a rebuild is running, guarded by {@link #lock}; null when no rebuild is running. */
+    private List<OrderPlacedEvent> ordersDuringRebuild;
+
+    public RecipeRecommendationService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.recipes.recommendations.fetch-size:1000}") int fetchSize) {
+        // Postgres only streams rows through a cursor when a fetch size is set inside a transaction
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the counts from recipeorderitem without blocking recommendations.
+     * Orders that commit while the table is read are added to the new counts unless it already saw them.
+     */
+    @Scheduled(initialDelayString = "${app.recipes.recommendations.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.recipes.recommendations.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ordersDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        RecipeCoOccurrenceIndex rebuilt = new RecipeCoOccurrenceIndex();
+        LongIntHashMap countedOrders = new LongIntHashMap();
+        boolean complete = false;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> readOrders(rebuilt, countedOrders));
+            complete = true;
+        } catch (Exception e) {
+            logger.error("Unable to rebuild recipe recommendations, keeping the current counts", e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (complete) {
+                for (OrderPlacedEvent order : ordersDuringRebuild) {
+                    if (!countedOrders.containsKey(order.getOrderId())) {
+                        rebuilt.addOrder(order.getRecipeIds());
+                    }
+                }
+                index = rebuilt;
+                logger.info("Built recipe recommendations from {} orders covering {} recipes", countedOrders.size(), rebuilt.size());
+            }
+            ordersDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the recipes of an order together once the order has committed.
+     *
+     * @param event The placed order
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        lock.writeLock().lock();
+        try {
+            index.addOrder(event.getRecipeIds());
+            if (ordersDuringRebuild != null) {
+                ordersDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param recipeId The recipe to find companions for
+     * @param limit The maximum number of recipes to return
+     * @return Recipe ids with the number of orders they shared with the recipe, most shared first
+     */
+    public List<Map.Entry<Long, Long>> getOftenOrderedWith(long recipeId, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.top(recipeId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void readOrders(RecipeCoOccurrenceIndex rebuilt, LongIntHashMap countedOrders) {
+        long[] currentOrder = {0L};
+        long[][] recipeIds = {new long[16]};
+        int[] length = {0};
+        cursorJdbcTemplate.query(ORDER_ITEMS_SQL, rs -> {
+            long orderId = rs.getLong("orderid");
+            if (length[0] > 0 && orderId != currentOrder[0]) {
+                rebuilt.addOrder(recipeIds[0], length[0]);
+                length[0] = 0;
+            }
+            currentOrder[0] = orderId;
+            countedOrders.put(orderId, 1);
+            if (length[0] == recipeIds[0].length) {
+                recipeIds[0] = Arrays.copyOf(recipeIds[0], length[0] * 2);
+            }
+            recipeIds[0][length[0]++] = rs.getLong("recipeid");
+        });
+        if (length[0] > 0) {
+            rebuilt.addOrder(recipeIds[0], length[0]);
+        }
+    }
+}
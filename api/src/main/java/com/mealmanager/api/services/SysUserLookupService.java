@@ -0,0 +1,67 @@
+package com.mealmanager.api.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.repository.SysUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Service that resolves Clerk user IDs to users through a bounded in-memory map.
+ * A lookup queries the database only the first time an ID is seen, and users without a profile are
+ * remembered too, so repeated profile status checks never reach the database. Writes to users must
+ * invalidate the IDs they touch; entries also expire after a while and are then reloaded from the
+ * database, bypassing the Hibernate query cache, so changes made by other instances show up within the TTL.
+ */
+@Service
+public class SysUserLookupService {
+
+    private final SysUserRepository sysUserRepository;
+    private final Cache<String, Optional<SysUser>> usersByClerkId;
+
+    public SysUserLookupService(
+            SysUserRepository sysUserRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.users.clerk-cache.max-size:10000}") long cacheSize,
+            @Value("${app.users.clerk-cache.ttl-minutes:5}") long cacheTtlMinutes) {
+        this.sysUserRepository = sysUserRepository;
+        this.usersByClerkId = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByClerkId, "sysuser-by-clerk-id");
+    }
+
+    /**
+     * @param clerkUserId The Clerk user ID of the authenticated user
+     * @return The user with that Clerk user ID, or empty if the user has no profile yet
+     */
+    public Optional<SysUser> findByClerkUserId(String clerkUserId) {
+        return usersByClerkId.get(clerkUserId, sysUserRepository::loadByClerkUserId);
+    }
+
+    /**
+     * Forgets the user of a Clerk user ID, after the user was created, changed or deleted.
+     *
+     * @param clerkUserId The Clerk user ID, ignored if null
+     */
+    public void invalidate(String clerkUserId) {
+        if (clerkUserId != null) {
+            usersByClerkId.invalidate(clerkUserId);
+        }
+    }
+
+    /**
+     * Forgets every user, after a write whose Clerk user IDs are not known.
+     */
+    public void invalidateAll() {
+        usersByClerkId.invalidateAll();
+    }
+}
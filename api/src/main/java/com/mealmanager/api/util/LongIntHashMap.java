@@ -0,0 +1,154 @@
+package com.mealmanager.api.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from long keys to int values stored in two parallel primitive arrays.
+ * Uses open addressing with linear probing, so an entry costs 12 bytes rather than a boxed key,
+ * a boxed value and a node. Entries cannot be removed. Not thread-safe.
+ */
+public final class LongIntHashMap {
+
+    /** Marks an empty slot; the key 0 itself is stored outside the arrays. */
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public LongIntHashMap() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize The number of entries the map should hold without resizing
+     */
+    public LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Called for each entry by {@link #forEach(EntryConsumer)}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(long key) {
+        return key == EMPTY ? hasZeroKey : keys[slotOf(key)] == key;
+    }
+
+    /**
+     * @param key The key to look up
+     * @param missingValue The value to return when the key is absent
+     * @return The value of the key, or {@code missingValue}
+     */
+    public int get(long key, int missingValue) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+        int slot = slotOf(key);
+        return keys[slot] == key ? values[slot] : missingValue;
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            resize();
+        }
+    }
+
+    /**
+     * Adds to the value of a key, treating an absent key as 0.
+     *
+     * @return The new value of the key
+     */
+    public int addTo(long key, int delta) {
+        int value = get(key, 0) + delta;
+        put(key, value);
+        return value;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(EMPTY, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * @return The slot holding the key, or the empty slot where it would be inserted
+     */
+    private int slotOf(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int newSlot = slotOf(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 8;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads sequential ids, such as database keys, across the table.
+     */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,68 @@
+package com.mealmanager.api.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader and every caller
+ * that arrives while it is running waits for and shares its result, including its exception.
+ * Nothing is cached; the next call after the load finishes starts a new load.
+ * Loads and coalesced calls are counted as app.singleflight.loads and app.singleflight.coalesced,
+ * tagged with the name of the instance.
+ */
+public class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.loads = meterRegistry.counter("app.singleflight.loads", "name", name);
+        this.coalesced = meterRegistry.counter("app.singleflight.coalesced", "name", name);
+    }
+
+    /**
+     * @param key Identifies the load; callers using the same key must expect the same result
+     * @param loader Loads the value when no load for the key is running
+     * @param <V> The type of the value
+     * @return The value loaded by this call or by the load already running for the key
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V load(String key, Supplier<V> loader) {
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            coalesced.increment();
+            return (V) await(running);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+-- Ranked full-text search over recipe name and description, plus trigram matching for name substrings.
+-- Names weigh more than descriptions when ranking.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE public.recipe ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(name, '')), 'A')
+    || setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX idx_recipe_search_vector ON public.recipe USING GIN (search_vector);
+CREATE INDEX idx_recipe_name_trgm ON public.recipe USING GIN (name gin_trgm_ops);
@@ -0,0 +1,20 @@
+-- Look up users by their Clerk user ID, and keep each Clerk user tied to one profile.
+-- Databases whose schema Hibernate updated may already have an equivalent unique constraint under
+-- a generated name; that one is kept rather than indexing the column a second time.
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1
+        FROM pg_index i
+        JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+        WHERE i.indrelid = 'public.sysuser'::regclass
+          AND i.indisunique
+          AND i.indnatts = 1
+          AND i.indpred IS NULL
+          AND i.indexprs IS NULL
+          AND a.attname = 'clerk_user_id'
+    ) THEN
+        CREATE UNIQUE INDEX idx_sysuser_clerk_user_id ON public.sysuser (clerk_user_id);
+    END IF;
+END
+$$;
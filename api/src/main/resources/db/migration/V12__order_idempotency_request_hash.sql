@@ -0,0 +1,3 @@
+-- Hash of the order an idempotency key was first used with, so a reused key with a different
+-- order is rejected instead of answered with the first order. Keys recorded before have no hash.
+ALTER TABLE public.recipeorder_idempotency ADD COLUMN request_hash character varying(64);
@@ -0,0 +1,19 @@
+-- Orders accepted by POST /api/orders/async. A row is written before the request is answered,
+-- so accepted orders survive a restart, and the worker of any instance can place them.
+-- The row keeps the outcome of the order for clients polling GET /api/orders/async/{requestId}.
+CREATE TABLE public.recipeorder_async (
+    request_id character varying(36) NOT NULL,
+    message text,
+    recipe_ids text NOT NULL,
+    user_ids text NOT NULL,
+    status character varying(16) NOT NULL,
+    orderid BIGINT,
+    error character varying(255),
+    createdat timestamp without time zone NOT NULL DEFAULT now(),
+    updatedat timestamp without time zone NOT NULL DEFAULT now(),
+    CONSTRAINT pk_recipeorder_async PRIMARY KEY (request_id)
+);
+
+-- The worker only ever scans queued rows, oldest first
+CREATE INDEX idx_recipeorder_async_queued ON public.recipeorder_async (createdat) WHERE status = 'QUEUED';
+CREATE INDEX idx_recipeorder_async_updatedat ON public.recipeorder_async (updatedat);
@@ -0,0 +1,8 @@
+-- One row per placed order, appended in the order's transaction and folded into order_daily_stats
+-- by a scheduled job. Appending never waits on another order, unlike updating the shared day row.
+CREATE TABLE public.order_daily_stats_delta (
+    id BIGSERIAL PRIMARY KEY,
+    day date NOT NULL,
+    recipe_count bigint NOT NULL,
+    recipient_count bigint NOT NULL
+);
@@ -0,0 +1,22 @@
+-- A counter bumped by every statement that changes recipes, so each instance can tell whether
+-- the recipe data it serves from memory is stale without reading the recipes.
+CREATE TABLE public.recipe_catalog_version (
+    id smallint NOT NULL DEFAULT 1,
+    version bigint NOT NULL DEFAULT 0,
+    CONSTRAINT pk_recipe_catalog_version PRIMARY KEY (id),
+    CONSTRAINT ck_recipe_catalog_version_single_row CHECK (id = 1)
+);
+
+INSERT INTO public.recipe_catalog_version (id, version) VALUES (1, 0);
+
+CREATE FUNCTION public.bump_recipe_catalog_version() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE public.recipe_catalog_version SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_recipe_catalog_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON public.recipe
+    FOR EACH STATEMENT EXECUTE PROCEDURE public.bump_recipe_catalog_version();
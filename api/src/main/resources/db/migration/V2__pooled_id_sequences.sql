@@ -0,0 +1,12 @@
+-- Per-entity sequences for pooled ID allocation.
+-- Each sequence increments by the entity's allocationSize (50). Hibernate's pooled optimizer
+-- hands out the block of ids ending at each nextval value, so a bulk insert of up to 50 rows
+-- needs a single sequence round trip instead of one per row.
+CREATE SEQUENCE public.recipe_id_seq INCREMENT BY 50;
+CREATE SEQUENCE public.recipeorder_id_seq INCREMENT BY 50;
+CREATE SEQUENCE public.sysuser_id_seq INCREMENT BY 50;
+
+-- Start each sequence one block above the highest existing id so existing rows keep their ids
+SELECT setval('public.recipe_id_seq', (SELECT COALESCE(MAX(id), 0) FROM public.recipe) + 50, false);
+SELECT setval('public.recipeorder_id_seq', (SELECT COALESCE(MAX(id), 0) FROM public.recipeorder) + 50, false);
+SELECT setval('public.sysuser_id_seq', (SELECT COALESCE(MAX(id), 0) FROM public.sysuser) + 50, false);
@@ -0,0 +1,11 @@
+-- Outbox for order emails. Rows are written in the same transaction as the order and
+-- published to the "email" queue by the outbox relay.
+CREATE TABLE public.email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    payload BYTEA NOT NULL,
+    createdat timestamp without time zone NOT NULL DEFAULT now(),
+    sentat timestamp without time zone
+);
+
+-- The relay only ever scans unsent rows in id order
+CREATE INDEX idx_email_outbox_unsent ON public.email_outbox (id) WHERE sentat IS NULL;
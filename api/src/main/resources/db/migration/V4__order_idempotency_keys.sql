@@ -0,0 +1,12 @@
+-- Idempotency keys sent with POST /api/orders. The primary key makes a retried request
+-- with the same key resolve to the order created by the first request.
+-- Kept out of recipeorder so expired keys can be purged without touching order history.
+CREATE TABLE public.recipeorder_idempotency (
+    idempotency_key character varying(255) NOT NULL,
+    orderid BIGINT NOT NULL,
+    createdat timestamp without time zone NOT NULL DEFAULT now(),
+    CONSTRAINT pk_recipeorder_idempotency PRIMARY KEY (idempotency_key),
+    CONSTRAINT fk_idempotency_order FOREIGN KEY (orderid) REFERENCES recipeorder(id)
+);
+
+CREATE INDEX idx_recipeorder_idempotency_createdat ON public.recipeorder_idempotency (createdat);
@@ -0,0 +1,16 @@
+-- One-time backfill of orders created before createdat and fulfilled were always set.
+-- GET /api/orders used to patch null createdat values on every request.
+-- Timestamps are truncated to milliseconds, the precision of the pagination cursor.
+UPDATE public.recipeorder SET createdat = date_trunc('milliseconds', COALESCE(createdat, now()))
+    WHERE createdat IS NULL OR createdat <> date_trunc('milliseconds', createdat);
+UPDATE public.recipeorder SET fulfilled = false WHERE fulfilled IS NULL;
+
+ALTER TABLE public.recipeorder
+    ALTER COLUMN createdat SET DEFAULT date_trunc('milliseconds', now()),
+    ALTER COLUMN createdat SET NOT NULL,
+    ALTER COLUMN fulfilled SET DEFAULT false,
+    ALTER COLUMN fulfilled SET NOT NULL;
+
+-- Keyset pagination on (createdat, id), newest first, with and without the fulfilled filter
+CREATE INDEX idx_recipeorder_createdat_id ON public.recipeorder (createdat DESC, id DESC);
+CREATE INDEX idx_recipeorder_fulfilled_createdat_id ON public.recipeorder (fulfilled, createdat DESC, id DESC);
@@ -0,0 +1,3 @@
+-- Support loading an order's items and recipients by order id
+CREATE INDEX idx_recipeorderitem_orderid ON public.recipeorderitem (orderid);
+CREATE INDEX idx_recipeorderrecipient_orderid ON public.recipeorderrecipient (orderid);
@@ -0,0 +1,23 @@
+-- Daily rollup of placed orders, maintained by the application as orders are placed
+CREATE TABLE public.order_daily_stats (
+    day date NOT NULL,
+    order_count bigint NOT NULL DEFAULT 0,
+    recipe_count bigint NOT NULL DEFAULT 0,
+    recipient_count bigint NOT NULL DEFAULT 0,
+    CONSTRAINT order_daily_stats_pkey PRIMARY KEY (day)
+);
+
+-- Backfill from the orders placed before the rollup existed
+INSERT INTO public.order_daily_stats (day, order_count, recipe_count, recipient_count)
+SELECT CAST(o.createdat AS date),
+       COUNT(*),
+       COALESCE(SUM(i.item_count), 0),
+       COALESCE(SUM(r.recipient_count), 0)
+FROM public.recipeorder o
+LEFT JOIN (
+    SELECT orderid, COUNT(*) AS item_count FROM public.recipeorderitem GROUP BY orderid
+) i ON i.orderid = o.id
+LEFT JOIN (
+    SELECT orderid, COUNT(*) AS recipient_count FROM public.recipeorderrecipient GROUP BY orderid
+) r ON r.orderid = o.id
+GROUP BY CAST(o.createdat AS date);
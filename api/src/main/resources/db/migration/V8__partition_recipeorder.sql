@@ -0,0 +1,44 @@
+-- Range-partition recipeorder by month on createdat.
+-- Every unique key of a partitioned table must include the partition key, so the primary key
+-- becomes (id, createdat) and the foreign keys referencing recipeorder(id) are dropped.
+-- Order ids stay unique because they are only handed out by recipeorder_id_seq.
+ALTER TABLE public.recipeorderitem DROP CONSTRAINT fk_orderitem_order;
+ALTER TABLE public.recipeorderrecipient DROP CONSTRAINT fk_orderrecipient_order;
+ALTER TABLE public.recipeorder_idempotency DROP CONSTRAINT fk_idempotency_order;
+
+ALTER TABLE public.recipeorder RENAME TO recipeorder_unpartitioned;
+ALTER TABLE public.recipeorder_unpartitioned RENAME CONSTRAINT pk_recipeorder TO pk_recipeorder_unpartitioned;
+
+CREATE TABLE public.recipeorder (
+    id bigint NOT NULL,
+    message TEXT,
+    createdat timestamp without time zone NOT NULL DEFAULT date_trunc('milliseconds', now()),
+    fulfilled boolean NOT NULL DEFAULT false,
+    CONSTRAINT pk_recipeorder PRIMARY KEY (id, createdat)
+) PARTITION BY RANGE (createdat);
+
+-- One partition per month from the oldest order up to three months ahead.
+-- Partitions are named recipeorder_pYYYYMM; RecipeOrderPartitionService keeps creating them ahead of time.
+DO $$
+DECLARE
+    month date := date_trunc('month', COALESCE((SELECT MIN(createdat) FROM public.recipeorder_unpartitioned), now()));
+    last_month date := date_trunc('month', now()) + interval '3 months';
+BEGIN
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE public.%I PARTITION OF public.recipeorder FOR VALUES FROM (%L) TO (%L)',
+            'recipeorder_p' || to_char(month, 'YYYYMM'), month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+-- Catches orders whose month has no partition yet, so an insert never fails for lack of one
+CREATE TABLE public.recipeorder_default PARTITION OF public.recipeorder DEFAULT;
+
+INSERT INTO public.recipeorder (id, message, createdat, fulfilled)
+SELECT id, message, createdat, fulfilled FROM public.recipeorder_unpartitioned;
+
+DROP TABLE public.recipeorder_unpartitioned;
+
+-- Recreated on the partitioned table, which creates them on every partition
+CREATE INDEX idx_recipeorder_createdat_id ON public.recipeorder (createdat DESC, id DESC);
+CREATE INDEX idx_recipeorder_fulfilled_createdat_id ON public.recipeorder (fulfilled, createdat DESC, id DESC);
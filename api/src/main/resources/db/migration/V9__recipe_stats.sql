@@ -0,0 +1,10 @@
+-- Number of orders that included each recipe, flushed periodically from in-memory counters.
+-- No foreign key to recipe, so a flush never fails because a recipe was deleted in the meantime.
+CREATE TABLE public.recipe_stats (
+    recipeid bigint NOT NULL,
+    order_count bigint NOT NULL DEFAULT 0,
+    CONSTRAINT pk_recipe_stats PRIMARY KEY (recipeid)
+);
+
+INSERT INTO public.recipe_stats (recipeid, order_count)
+SELECT recipeid, COUNT(*) FROM public.recipeorderitem GROUP BY recipeid;
@@ -0,0 +1,47 @@
+package com.mealmanager.api;
+
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a test context against a real Postgres for the parts H2 cannot run: partitioning,
+ * ON CONFLICT upserts, full-text search and the Flyway migrations themselves.
+ * One container is shared by the whole test run and each Spring context gets a fresh database,
+ * so Flyway migrates it from scratch. Test classes using it should be annotated with
+ * {@code @Testcontainers(disabledWithoutDocker = true)} and
+ * {@code @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresContainerConfig {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    @Bean
+    @Primary
+    public DataSource dataSource() throws SQLException {
+        if (!POSTGRES.isRunning()) {
+            POSTGRES.start();
+        }
+        String database = "mealmanager_test_" + DATABASES.incrementAndGet();
+        try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        }
+        return DataSourceBuilder.create()
+                .url(POSTGRES.getJdbcUrl().replace("/" + POSTGRES.getDatabaseName(), "/" + database))
+                .username(POSTGRES.getUsername())
+                .password(POSTGRES.getPassword())
+                .build();
+    }
+}
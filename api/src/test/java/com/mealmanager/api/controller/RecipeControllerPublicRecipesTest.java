@@ -0,0 +1,111 @@
+package com.mealmanager.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.repository.RecipeRepository;
+import com.mealmanager.api.services.PublicRecipeSnapshotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RecipeControllerPublicRecipesTest {
+
+    private final PublicRecipeSnapshotService snapshotService;
+    private final PublicRecipeSnapshotService.Snapshot snapshot;
+    private final MockMvc mockMvc;
+
+    RecipeControllerPublicRecipesTest() throws IOException {
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        when(recipeRepository.findByDisabled(false)).thenReturn(List.of(new Recipe("Chili", "Hot", null, false)));
+        snapshotService = new PublicRecipeSnapshotService(recipeRepository, new ObjectMapper());
+        snapshotService.load();
+        snapshot = snapshotService.getSnapshot();
+
+        RecipeController controller = new RecipeController();
+        controller.publicRecipeSnapshotService = snapshotService;
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void stop() {
+        snapshotService.stop();
+    }
+
+    @Test
+    void plainJsonWithoutAcceptEncoding() throws Exception {
+        mockMvc.perform(get("/api/recipes/public"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.getEtag(false)))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(snapshot.getJson()));
+    }
+
+    @Test
+    void gzipWhenAccepted() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/recipes/public").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.getEtag(true)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(new String(snapshot.getJson(), StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void plainJsonWhenGzipIsRefused() throws Exception {
+        mockMvc.perform(get("/api/recipes/public").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(snapshot.getJson()));
+    }
+
+    @Test
+    void acceptEncodingIsParsedByCodingAndQuality() {
+        assertTrue(RecipeController.acceptsGzip("gzip"));
+        assertTrue(RecipeController.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(RecipeController.acceptsGzip("br, *;q=0.1"));
+        assertFalse(RecipeController.acceptsGzip("gzip;q=0, *"));
+        assertFalse(RecipeController.acceptsGzip("*;q=0"));
+        assertFalse(RecipeController.acceptsGzip("x-gzipped, deflate"));
+        assertFalse(RecipeController.acceptsGzip(null));
+    }
+
+    @Test
+    void notModifiedForEitherEtag() throws Exception {
+        // a client that cached the plain form and now accepts gzip still revalidates
+        mockMvc.perform(get("/api/recipes/public")
+                        .header(HttpHeaders.IF_NONE_MATCH, snapshot.getEtag(false))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.getEtag(true)))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void staleEtagGetsTheBody() throws Exception {
+        mockMvc.perform(get("/api/recipes/public").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(snapshot.getJson()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.mealmanager.api.controller;
+
+import com.mealmanager.api.config.AsyncTimeoutInterceptor;
+import com.mealmanager.api.services.OrderExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RecipeOrderControllerExportTest {
+
+    private static final String EXPORTED = "{\"id\":1}\n{\"id\":2}\n";
+    private static final long EXPORT_TIMEOUT_MS = 1_800_000;
+
+    private final MockMvc mockMvc;
+
+    RecipeOrderControllerExportTest() throws Exception {
+        OrderExportService exportService = mock(OrderExportService.class);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(EXPORTED.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).export(eq(OrderExportService.Format.NDJSON), any());
+
+        RecipeOrderController controller = new RecipeOrderController();
+        controller.orderExportService = exportService;
+        controller.exportTimeoutMs = EXPORT_TIMEOUT_MS;
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void exportIsStreamedWithItsOwnTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(EXPORT_TIMEOUT_MS, result.getRequest().getAttribute(AsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE));
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"orders.ndjson\""))
+                .andExpect(content().string(EXPORTED));
+    }
+
+    @Test
+    void gzipExportIsCompressed() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/orders/export").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"orders.ndjson.gz\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(EXPORTED, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void interceptorAppliesTheTimeoutSetByTheHandler() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        request.setAttribute(AsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE, EXPORT_TIMEOUT_MS);
+        StandardServletAsyncWebRequest asyncRequest = new StandardServletAsyncWebRequest(request, new MockHttpServletResponse());
+
+        new AsyncTimeoutInterceptor().beforeConcurrentHandling(asyncRequest, () -> null);
+        asyncRequest.startAsync();
+
+        assertEquals(EXPORT_TIMEOUT_MS, request.getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void unknownFormatIsRejected() throws Exception {
+        mockMvc.perform(get("/api/orders/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
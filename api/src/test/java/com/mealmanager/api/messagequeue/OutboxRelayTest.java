@@ -0,0 +1,129 @@
+package com.mealmanager.api.messagequeue;
+
+import com.mealmanager.api.model.EmailOutboxMessage;
+import com.mealmanager.api.repository.EmailOutboxMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private static final long CONFIRM_TIMEOUT_MS = 5000;
+
+    private final RabbitTemplate template = mock(RabbitTemplate.class);
+    private final RabbitOperations operations = mock(RabbitOperations.class);
+    private final EmailOutboxMessageRepository repository = mock(EmailOutboxMessageRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final OutboxRelay relay = new OutboxRelay();
+
+    @BeforeEach
+    void setUp() {
+        // the operations callback runs on the mocked channel-bound operations
+        doAnswer(invocation -> invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations))
+                .when(template).invoke(any());
+        ReflectionTestUtils.setField(relay, "template", template);
+        ReflectionTestUtils.setField(relay, "queue", new Queue("emails"));
+        ReflectionTestUtils.setField(relay, "emailOutboxMessageRepository", repository);
+        ReflectionTestUtils.setField(relay, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "confirmTimeoutMs", CONFIRM_TIMEOUT_MS);
+        ReflectionTestUtils.setField(relay, "retentionDays", 7);
+    }
+
+    @Test
+    void confirmedBatchesAreMarkedSent() {
+        when(repository.lockUnsentBatch(2)).thenReturn(List.of(message(1), message(2))).thenReturn(List.of(message(3)));
+
+        relay.relay();
+
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(operations, times(3)).send(eq("emails"), sent.capture());
+        assertEquals("1", sent.getAllValues().get(0).getMessageProperties().getMessageId());
+        assertEquals(MessageDeliveryMode.PERSISTENT, sent.getAllValues().get(0).getMessageProperties().getDeliveryMode());
+        assertArrayEquals(new byte[]{3}, sent.getAllValues().get(2).getBody());
+
+        // rows are only marked sent once the broker confirmed them
+        InOrder order = inOrder(operations, repository);
+        order.verify(operations).waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+        order.verify(repository).markSent(eq(List.of(1L, 2L)), any(Date.class));
+        order.verify(operations).waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+        order.verify(repository).markSent(eq(List.of(3L)), any(Date.class));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void nackedBatchStaysUnsent() {
+        when(repository.lockUnsentBatch(2)).thenReturn(List.of(message(1), message(2)));
+        doThrow(new AmqpIOException(new IOException("nack received"))).when(operations).waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+
+        relay.relay();
+
+        verify(repository, never()).markSent(anyCollection(), any());
+        verify(transactionManager).rollback(any());
+        verify(repository, times(1)).lockUnsentBatch(anyInt());
+    }
+
+    @Test
+    void unconfirmedBatchStaysUnsent() {
+        when(repository.lockUnsentBatch(2)).thenReturn(List.of(message(1)));
+        doThrow(new AmqpTimeoutException("no confirm")).when(operations).waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+
+        relay.relay();
+
+        verify(repository, never()).markSent(anyCollection(), any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void sentMessagesOlderThanTheRetentionAreDeleted() {
+        when(repository.deleteSentBefore(any())).thenReturn(3);
+        long before = System.currentTimeMillis();
+
+        relay.deleteSentMessages();
+
+        ArgumentCaptor<Date> cutoff = ArgumentCaptor.forClass(Date.class);
+        verify(repository).deleteSentBefore(cutoff.capture());
+        long retention = TimeUnit.DAYS.toMillis(7);
+        assertTrue(cutoff.getValue().getTime() >= before - retention);
+        assertTrue(cutoff.getValue().getTime() <= System.currentTimeMillis() - retention);
+        verify(transactionManager).commit(any());
+    }
+
+    private static EmailOutboxMessage message(long id) {
+        EmailOutboxMessage message = new EmailOutboxMessage(new byte[]{(byte) id});
+        ReflectionTestUtils.setField(message, "id", id);
+        return message;
+    }
+}
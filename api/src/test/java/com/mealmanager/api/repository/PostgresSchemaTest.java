@@ -0,0 +1,82 @@
+package com.mealmanager.api.repository;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StreamUtils;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Boots JPA on a database migrated by Flyway with the schema update the application runs with.
+ * halt_on_error turns any statement of the update that Postgres rejects into a failed context.
+ * Each test runs in a transaction that is rolled back, DDL included.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.jpa.properties.hibernate.hbm2ddl.halt_on_error=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostgresContainerConfig.class)
+class PostgresSchemaTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void schemaUpdateLeavesThePartitionedOrderTableUnreferenced() {
+        Integer foreignKeys = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE contype = 'f' AND confrelid = 'public.recipeorder'::regclass",
+                Integer.class);
+        assertEquals(0, foreignKeys);
+    }
+
+    @Test
+    void clerkUserIdHasASingleUniqueIndex() {
+        assertEquals(1, uniqueClerkUserIdIndexes());
+    }
+
+    @Test
+    void clerkUserIdMigrationKeepsAnExistingUniqueConstraint() throws IOException {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS public.idx_sysuser_clerk_user_id");
+        jdbcTemplate.execute("ALTER TABLE public.sysuser ADD CONSTRAINT uk_sysuser_clerk UNIQUE (clerk_user_id)");
+        assertEquals(1, uniqueClerkUserIdIndexes());
+
+        jdbcTemplate.execute(StreamUtils.copyToString(
+                new ClassPathResource("db/migration/V11__sysuser_clerk_user_id_index.sql").getInputStream(),
+                StandardCharsets.UTF_8));
+
+        assertEquals(1, uniqueClerkUserIdIndexes());
+    }
+
+    @Test
+    void everyRecipeWriteBumpsTheCatalogVersion() {
+        long before = catalogVersion();
+        jdbcTemplate.update("INSERT INTO recipe (id, name) VALUES (9101, 'Catalog version test')");
+        jdbcTemplate.update("UPDATE recipe SET disabled = true WHERE name = 'Catalog version test'");
+        jdbcTemplate.update("DELETE FROM recipe WHERE name = 'Catalog version test'");
+
+        assertEquals(before + 3, catalogVersion());
+    }
+
+    private long catalogVersion() {
+        return jdbcTemplate.queryForObject("SELECT version FROM recipe_catalog_version", Long.class);
+    }
+
+    private Integer uniqueClerkUserIdIndexes() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_index i "
+                + "JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0] "
+                + "WHERE i.indrelid = 'public.sysuser'::regclass AND i.indisunique AND a.attname = 'clerk_user_id'",
+                Integer.class);
+    }
+}
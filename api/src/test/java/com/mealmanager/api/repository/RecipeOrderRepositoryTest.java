@@ -0,0 +1,95 @@
+package com.mealmanager.api.repository;
+
+import com.mealmanager.api.dto.RecipeOrderDetailsDTO;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.services.EmailOutboxService;
+import com.mealmanager.api.services.RecipeOrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({RecipeOrderService.class, EmailOutboxService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipeOrderRepositoryTest {
+
+    @Autowired
+    private RecipeOrderRepository recipeOrderRepository;
+
+    @Autowired
+    private RecipeOrderService recipeOrderService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SysUserRepository sysUserRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findDetailsQueryCountDoesNotGrowWithOrderSize() {
+        long smallOrderId = placeOrder(2, 1);
+        long largeOrderId = placeOrder(25, 8);
+
+        statistics.clear();
+        RecipeOrderDetailsDTO small = recipeOrderRepository.findDetails(smallOrderId).orElseThrow();
+        long smallOrderQueries = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        RecipeOrderDetailsDTO large = recipeOrderRepository.findDetails(largeOrderId).orElseThrow();
+        long largeOrderQueries = statistics.getPrepareStatementCount();
+
+        assertEquals(2, smallOrderQueries);
+        assertEquals(2, largeOrderQueries);
+        assertEquals(2, small.getSelectedRecipes().size());
+        assertEquals(1, small.getSelectedUsers().size());
+        assertEquals(25, large.getSelectedRecipes().size());
+        assertEquals(8, large.getSelectedUsers().size());
+        assertEquals("message", large.getMessage());
+    }
+
+    @Test
+    void findDetailsReturnsEmptyForUnknownOrder() {
+        assertTrue(recipeOrderRepository.findDetails(-1).isEmpty());
+    }
+
+    private long placeOrder(int recipeCount, int userCount) {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < recipeCount; i++) {
+            recipes.add(new Recipe("Recipe " + i, null, null, false));
+        }
+        List<SysUser> users = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            users.add(new SysUser("First" + i, "Last" + i, "user" + i + "@mealmanager.com", true));
+        }
+        return recipeOrderService.placeOrder("message", recipeRepository.saveAll(recipes), sysUserRepository.saveAll(users)).getId();
+    }
+}
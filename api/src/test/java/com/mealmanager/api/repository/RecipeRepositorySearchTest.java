@@ -0,0 +1,73 @@
+package com.mealmanager.api.repository;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import com.mealmanager.api.model.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostgresContainerConfig.class)
+class RecipeRepositorySearchTest {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @BeforeEach
+    void saveRecipes() {
+        recipeRepository.deleteAll();
+        recipeRepository.saveAll(List.of(
+                new Recipe("Rice bowl", "Rice topped with grilled chicken", null, false),
+                new Recipe("Chicken curry", "A mild curry", null, false),
+                new Recipe("Chickpea salad", "No meat at all", null, false),
+                new Recipe("Beef stew", "Slow cooked", null, false)));
+        recipeRepository.flush();
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionMatches() {
+        Page<Recipe> results = recipeRepository.search("chicken", "%chicken%", PageRequest.of(0, 20));
+
+        assertEquals(List.of("Chicken curry", "Rice bowl"), names(results.getContent()));
+    }
+
+    @Test
+    void namesContainingTheQueryMatchWithoutAWholeWord() {
+        Page<Recipe> results = recipeRepository.search("chick", "%chick%", PageRequest.of(0, 20));
+
+        assertEquals(List.of("Chicken curry", "Chickpea salad"), names(results.getContent()));
+    }
+
+    @Test
+    void countCoversEveryPage() {
+        Page<Recipe> first = recipeRepository.search("chicken", "%chicken%", PageRequest.of(0, 1));
+        Page<Recipe> second = recipeRepository.search("chicken", "%chicken%", PageRequest.of(1, 1));
+
+        assertEquals(2, first.getTotalElements());
+        assertEquals(2, first.getTotalPages());
+        assertEquals(List.of("Chicken curry"), names(first.getContent()));
+        assertEquals(List.of("Rice bowl"), names(second.getContent()));
+    }
+
+    @Test
+    void nameFilterIgnoresDescriptions() {
+        assertEquals(List.of("Chicken curry"), names(recipeRepository.findByNameContaining("Chicken")));
+    }
+
+    private static List<String> names(List<Recipe> recipes) {
+        return recipes.stream().map(Recipe::getName).collect(Collectors.toList());
+    }
+}
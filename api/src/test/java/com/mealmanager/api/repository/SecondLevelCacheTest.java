@@ -0,0 +1,168 @@
+package com.mealmanager.api.repository;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.mealmanager.api.config.HibernateCacheConfig;
+import com.mealmanager.api.dto.OrderFulfillmentDTO;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.RecipeOrder;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.services.OrderFulfillmentService;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Date;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.javax.persistence.sharedCache.mode=ENABLE_SELECTIVE"
+})
+@Import({HibernateCacheConfig.class, OrderFulfillmentService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SysUserRepository sysUserRepository;
+
+    @Autowired
+    private RecipeOrderRepository recipeOrderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderFulfillmentService orderFulfillmentService;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        sysUserRepository.deleteAll();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() throws InterruptedException {
+        List<Long> recipeIds = ids(recipeRepository.saveAll(List.of(
+                new Recipe("Chili", null, null, false), new Recipe("Stew", null, null, false))));
+        SysUser user = sysUserRepository.save(new SysUser("First", "Last", "user@mealmanager.com", true, "user_1"));
+        waitForNextCacheTimestamp();
+
+        recipeRepository.findAllById(recipeIds);
+        sysUserRepository.findByClerkUserId("user_1");
+        statistics.clear();
+
+        assertEquals(2, recipeRepository.findAllById(recipeIds).size());
+        assertTrue(recipeRepository.findById(recipeIds.get(0)).isPresent());
+        assertEquals(user.getId(), sysUserRepository.findByClerkUserId("user_1").orElseThrow().getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getQueryCacheHitCount() >= 2);
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 4);
+    }
+
+    @Test
+    void writesInvalidateCachedResults() {
+        Recipe recipe = recipeRepository.save(new Recipe("Chili", null, null, false));
+        List<Long> recipeIds = List.of(recipe.getId());
+        recipeRepository.findAllById(recipeIds);
+
+        recipe.setName("Beef Chili");
+        recipeRepository.save(recipe);
+        recipeRepository.save(new Recipe("Stew", null, null, false));
+
+        assertEquals("Beef Chili", recipeRepository.findAllById(recipeIds).get(0).getName());
+        assertEquals("Beef Chili", recipeRepository.findById(recipe.getId()).orElseThrow().getName());
+        assertEquals(2, recipeRepository.findAll().size());
+    }
+
+    @Test
+    void loadByClerkUserIdBypassesTheQueryCache() throws InterruptedException {
+        SysUser user = sysUserRepository.save(new SysUser("First", "Last", "user@mealmanager.com", true, "user_1"));
+        waitForNextCacheTimestamp();
+        sysUserRepository.findByClerkUserId("user_1");
+        statistics.clear();
+
+        assertEquals(user.getId(), sysUserRepository.loadByClerkUserId("user_1").orElseThrow().getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void fulfillmentUpdatesKeepCachedRecipes() {
+        Recipe recipe = recipeRepository.save(new Recipe("Chili", null, null, false));
+        recipeOrderRepository.save(new RecipeOrder("message"));
+        recipeRepository.findById(recipe.getId());
+
+        OrderFulfillmentDTO request = new OrderFulfillmentDTO();
+        request.setFrom(new Date(0));
+        request.setFulfilled(true);
+        assertEquals(1, orderFulfillmentService.updateFulfillment(request));
+        statistics.clear();
+        assertTrue(recipeRepository.findById(recipe.getId()).isPresent());
+
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void entityAndQueryRegionsExpireButTimestampsDoNot() {
+        for (String region : List.of(Recipe.CACHE_REGION, Recipe.QUERY_CACHE_REGION,
+                SysUser.CACHE_REGION, SysUser.QUERY_CACHE_REGION)) {
+            assertTrue(expireAfterWrite(region).isPresent(), region);
+        }
+        assertFalse(expireAfterWrite(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME).isPresent());
+    }
+
+    private OptionalLong expireAfterWrite(String region) {
+        return caffeineConfiguration(hibernateCacheManager.getCache(region)).getExpireAfterWrite();
+    }
+
+    // the configuration class literal is raw, while the regions are typed Object to Object
+    @SuppressWarnings("unchecked")
+    private static CaffeineConfiguration<Object, Object> caffeineConfiguration(Cache<Object, Object> cache) {
+        return cache.getConfiguration(CaffeineConfiguration.class);
+    }
+
+    /**
+     * Query results cached in the same millisecond as a write to their table are treated as stale.
+     */
+    private static void waitForNextCacheTimestamp() throws InterruptedException {
+        Thread.sleep(5);
+    }
+
+    private static List<Long> ids(List<Recipe> recipes) {
+        return recipes.stream().map(Recipe::getId).collect(Collectors.toList());
+    }
+}
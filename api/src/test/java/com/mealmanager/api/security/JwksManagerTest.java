@@ -0,0 +1,175 @@
+package com.mealmanager.api.security;
+
+import com.auth0.jwk.Jwk;
+import com.auth0.jwk.SigningKeyNotFoundException;
+import com.auth0.jwk.UrlJwkProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link JwksManager} against a local stand-in for the Clerk JWKS endpoint.
+ */
+class JwksManagerTest {
+
+    private static final long UNKNOWN_KEY_INTERVAL_MS = 30_000;
+    private static final TestKeys KEY_1 = new TestKeys("key-1");
+    private static final TestKeys KEY_2 = new TestKeys("key-2");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicLong nanoTime = new AtomicLong();
+    private volatile byte[] jwks;
+    private volatile int status = 200;
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private HttpServer server;
+    private JwksManager manager;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/.well-known/jwks.json", exchange -> {
+            requests.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = jwks;
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/.well-known/jwks.json");
+        manager = new JwksManager(new UrlJwkProvider(url, 2000, 2000), UNKNOWN_KEY_INTERVAL_MS, nanoTime::get);
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void keysLoadedAtStartAreServedWithoutFetching() throws Exception {
+        publish(KEY_1, KEY_2);
+        manager.start();
+
+        assertEquals(KEY_1.keyId(), manager.get(KEY_1.keyId()).getId());
+        assertEquals(KEY_2.keyId(), manager.get(KEY_2.keyId()).getId());
+        manager.get(KEY_1.keyId());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void failedRefreshKeepsServingTheStaleKeys() throws Exception {
+        publish(KEY_1);
+        manager.start();
+        Jwk loaded = manager.get(KEY_1.keyId());
+
+        status = 503;
+        manager.refresh();
+
+        assertSame(loaded, manager.get(KEY_1.keyId()));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void unchangedKeysKeepTheirInstanceAcrossRefreshes() throws Exception {
+        publish(KEY_1);
+        manager.start();
+        Jwk loaded = manager.get(KEY_1.keyId());
+
+        publish(KEY_1, KEY_2);
+        manager.refresh();
+
+        assertSame(loaded, manager.get(KEY_1.keyId()));
+        assertEquals(2, manager.size());
+    }
+
+    @Test
+    void concurrentRequestsForAnUnknownKeyShareOneFetch() throws Exception {
+        publish(KEY_1);
+        manager.start();
+        publish(KEY_1, KEY_2);
+        release = new CountDownLatch(1);
+
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Jwk>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> manager.get(KEY_2.keyId())));
+            }
+            waitForRequests(2);
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Jwk> result : results) {
+                assertEquals(KEY_2.keyId(), result.get(5, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void fetchesForUnknownKeysAreRateLimited() throws Exception {
+        publish(KEY_1);
+        manager.start();
+
+        assertThrows(SigningKeyNotFoundException.class, () -> manager.get("made-up"));
+        assertThrows(SigningKeyNotFoundException.class, () -> manager.get("made-up"));
+        assertEquals(2, requests.get());
+
+        publish(KEY_1, KEY_2);
+        assertThrows(SigningKeyNotFoundException.class, () -> manager.get(KEY_2.keyId()));
+        assertEquals(2, requests.get());
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(UNKNOWN_KEY_INTERVAL_MS));
+        assertEquals(KEY_2.keyId(), manager.get(KEY_2.keyId()).getId());
+        assertEquals(3, requests.get());
+    }
+
+    private void publish(TestKeys... keys) throws IOException {
+        List<Map<String, Object>> values = Stream.of(keys).map(TestKeys::jwkValues).collect(Collectors.toList());
+        jwks = objectMapper.writeValueAsBytes(Map.of("keys", values));
+    }
+
+    private void waitForRequests(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(requests.get() >= expected, "the JWKS endpoint was not called");
+    }
+}
@@ -0,0 +1,74 @@
+package com.mealmanager.api.security;
+
+import com.auth0.jwk.Jwk;
+import com.auth0.jwk.JwkException;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.mealmanager.api.config.JwtConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.security.interfaces.RSAPublicKey;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of verifying a token and creating its authentication, building the verifier and a
+ * Spring Security User for every request as the filter used to, next to the per-key verifiers of
+ * {@link JwtVerifiers} and {@link ClerkAuthentication}. The gc profiler reports the allocations per
+ * request as gc.alloc.rate.norm.
+ * Run with {@code mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=JwtAuthentication}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtAuthenticationBenchmark {
+
+    private TestKeys keys;
+    private Jwk jwk;
+    private JwtConfig jwtConfig;
+    private JwtVerifiers verifiers;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new TestKeys("bench-key");
+        jwk = keys.jwk();
+        jwtConfig = new JwtConfig();
+        jwtConfig.setIssuer(TestKeys.ISSUER);
+        verifiers = new JwtVerifiers(keyId -> jwk, jwtConfig);
+        token = keys.sign("user_bench");
+    }
+
+    @Benchmark
+    public Authentication perRequestVerifier() throws JwkException {
+        DecodedJWT jwt = JWT.decode(token);
+        Algorithm algorithm = Algorithm.RSA256((RSAPublicKey) jwk.getPublicKey(), null);
+        jwt = JWT.require(algorithm).withIssuer(jwtConfig.getIssuer()).build().verify(token);
+        User user = new User(jwt.getSubject(), "", Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    @Benchmark
+    public Authentication reusedVerifier() throws JwkException {
+        DecodedJWT jwt = JWT.decode(token);
+        return new ClerkAuthentication(verifiers.forKey(jwt.getKeyId()).verify(jwt));
+    }
+}
@@ -0,0 +1,98 @@
+package com.mealmanager.api.security;
+
+import com.mealmanager.api.config.JwtConfig;
+import com.mealmanager.api.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtAuthenticationFilterTest {
+
+    private static final TestKeys KEY = new TestKeys("key-1");
+
+    private final AtomicInteger keyLookups = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SecurityUtils securityUtils = new SecurityUtils();
+    private final JwtAuthenticationFilter filter = newFilter();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenOnProtectedPathAuthenticatesTheRequest() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("/api/recipes", KEY.sign("user_1")), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertTrue(securityUtils.isAuthenticated());
+        assertEquals(Optional.of("user_1"), securityUtils.getCurrentUserId());
+        assertSame(securityUtils.getCurrentUserId(), securityUtils.getCurrentUserId());
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() throws Exception {
+        String token = KEY.sign("user_1");
+        filter.doFilter(request("/api/recipes", token), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request("/api/recipes", token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(Optional.of("user_1"), securityUtils.getCurrentUserId());
+        assertEquals(1, keyLookups.get());
+        assertEquals(1, meterRegistry.get("app.security.jwt.verification").timer().count());
+    }
+
+    @Test
+    void tokenOnPublicPathIsIgnored() throws Exception {
+        for (String path : new String[] {"/api/recipes/public", "/api/recipes/public/ids", "/api/health", "/api/buildinfo"}) {
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request(path, KEY.sign("user_1")), new MockHttpServletResponse(), chain);
+
+            assertNotNull(chain.getRequest(), path);
+            assertFalse(securityUtils.isAuthenticated(), path);
+        }
+        assertEquals(0, keyLookups.get());
+    }
+
+    @Test
+    void invalidTokenLeavesTheRequestAnonymous() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("/api/recipes", "not-a-token"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertFalse(securityUtils.isAuthenticated());
+        assertEquals(Optional.empty(), securityUtils.getCurrentUserId());
+    }
+
+    private JwtAuthenticationFilter newFilter() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setIssuer(TestKeys.ISSUER);
+        JwtVerifiers verifiers = new JwtVerifiers(keyId -> {
+            keyLookups.incrementAndGet();
+            return KEY.jwk();
+        }, jwtConfig);
+        return new JwtAuthenticationFilter(verifiers, jwtConfig, false, new VerifiedTokenCache(100, meterRegistry),
+                meterRegistry, SecurityConfig.PUBLIC_PATHS);
+    }
+
+    private static MockHttpServletRequest request(String path, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,68 @@
+package com.mealmanager.api.security;
+
+import com.auth0.jwk.Jwk;
+import com.auth0.jwk.SigningKeyNotFoundException;
+import com.auth0.jwt.exceptions.IncorrectClaimException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.interfaces.JWTVerifier;
+import com.mealmanager.api.config.JwtConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtVerifiersTest {
+
+    private static final TestKeys KEY_1 = new TestKeys("key-1");
+    private static final TestKeys KEY_2 = new TestKeys("key-2");
+
+    private final Map<String, Jwk> keySet = new HashMap<>();
+    private final JwtVerifiers verifiers = new JwtVerifiers(keyId -> {
+        Jwk jwk = keySet.get(keyId);
+        if (jwk == null) {
+            throw new SigningKeyNotFoundException("No key " + keyId, null);
+        }
+        return jwk;
+    }, jwtConfig(TestKeys.ISSUER));
+
+    @Test
+    void verifierIsReusedUntilTheKeySetChanges() throws Exception {
+        keySet.put(KEY_1.keyId(), KEY_1.jwk());
+        JWTVerifier first = verifiers.forKey(KEY_1.keyId());
+
+        assertSame(first, verifiers.forKey(KEY_1.keyId()));
+        assertEquals("user_1", first.verify(KEY_1.sign("user_1")).getSubject());
+
+        keySet.put(KEY_1.keyId(), KEY_1.jwk());
+        assertNotSame(first, verifiers.forKey(KEY_1.keyId()));
+    }
+
+    @Test
+    void verifierChecksTheSignatureOfItsOwnKey() throws Exception {
+        keySet.put(KEY_1.keyId(), KEY_1.jwk());
+        keySet.put(KEY_2.keyId(), KEY_2.jwk());
+
+        assertEquals("user_2", verifiers.forKey(KEY_2.keyId()).verify(KEY_2.sign("user_2")).getSubject());
+        assertThrows(SignatureVerificationException.class, () -> verifiers.forKey(KEY_1.keyId()).verify(KEY_2.sign("user_2")));
+        assertThrows(SigningKeyNotFoundException.class, () -> verifiers.forKey("unknown"));
+    }
+
+    @Test
+    void verifierChecksTheIssuer() throws Exception {
+        keySet.put(KEY_1.keyId(), KEY_1.jwk());
+        JwtVerifiers otherIssuer = new JwtVerifiers(keySet::get, jwtConfig("https://other.test"));
+
+        assertThrows(IncorrectClaimException.class, () -> otherIssuer.forKey(KEY_1.keyId()).verify(KEY_1.sign("user_1")));
+    }
+
+    private static JwtConfig jwtConfig(String issuer) {
+        JwtConfig config = new JwtConfig();
+        config.setIssuer(issuer);
+        return config;
+    }
+}
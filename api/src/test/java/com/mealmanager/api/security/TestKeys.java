@@ -0,0 +1,85 @@
+package com.mealmanager.api.security;
+
+import com.auth0.jwk.Jwk;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An RSA signing key with its key ID, for signing test tokens and publishing the key as a JWK.
+ */
+final class TestKeys {
+
+    static final String ISSUER = "https://clerk.test";
+
+    private final String keyId;
+    private final KeyPair keyPair;
+
+    TestKeys(String keyId) {
+        this.keyId = keyId;
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            this.keyPair = generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    String keyId() {
+        return keyId;
+    }
+
+    /**
+     * @return A token for the subject signed with this key, issued by {@link #ISSUER} and valid for an hour
+     */
+    String sign(String subject) {
+        return JWT.create()
+                .withKeyId(keyId)
+                .withIssuer(ISSUER)
+                .withSubject(subject)
+                .withExpiresAt(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .sign(Algorithm.RSA256((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate()));
+    }
+
+    /**
+     * @return The public key as the members of a JWKS entry
+     */
+    Map<String, Object> jwkValues() {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("kid", keyId);
+        values.put("kty", "RSA");
+        values.put("alg", "RS256");
+        values.put("use", "sig");
+        values.put("n", base64Url(publicKey.getModulus()));
+        values.put("e", base64Url(publicKey.getPublicExponent()));
+        return values;
+    }
+
+    Jwk jwk() {
+        return Jwk.fromValues(jwkValues());
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // JWK integers are unsigned, so drop the sign byte BigInteger adds to a leading 1 bit
+        if (bytes[0] == 0 && bytes.length > 1) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
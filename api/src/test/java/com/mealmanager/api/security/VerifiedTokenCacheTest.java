@@ -0,0 +1,91 @@
+package com.mealmanager.api.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifiedTokenCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Instant now = NOW;
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistry,
+            new Clock() {
+                @Override
+                public ZoneOffset getZone() {
+                    return ZoneOffset.UTC;
+                }
+
+                @Override
+                public Clock withZone(ZoneId zone) {
+                    return this;
+                }
+
+                @Override
+                public Instant instant() {
+                    return now;
+                }
+            },
+            () -> TimeUnit.MILLISECONDS.toNanos(now.toEpochMilli()));
+
+    @Test
+    void verifiedTokenIsReturnedUntilItExpires() {
+        String token = token("user_1", NOW.plus(Duration.ofMinutes(1)));
+        cache.put(token, JWT.decode(token));
+
+        assertEquals("user_1", cache.get(token).map(DecodedJWT::getSubject).orElse(null));
+
+        now = NOW.plus(Duration.ofSeconds(59));
+        assertTrue(cache.get(token).isPresent());
+
+        now = NOW.plus(Duration.ofMinutes(1));
+        assertFalse(cache.get(token).isPresent());
+    }
+
+    @Test
+    void expiredOrNonExpiringTokensAreNotCached() {
+        String expired = token("user_1", NOW.minus(Duration.ofSeconds(1)));
+        String nonExpiring = JWT.create().withSubject("user_2").sign(Algorithm.HMAC256("secret"));
+        cache.put(expired, JWT.decode(expired));
+        cache.put(nonExpiring, JWT.decode(nonExpiring));
+
+        assertFalse(cache.get(expired).isPresent());
+        assertFalse(cache.get(nonExpiring).isPresent());
+    }
+
+    @Test
+    void unknownTokenIsAMiss() {
+        String token = token("user_1", NOW.plus(Duration.ofMinutes(1)));
+        cache.put(token, JWT.decode(token));
+
+        assertFalse(cache.get(token("user_2", NOW.plus(Duration.ofMinutes(1)))).isPresent());
+        cache.get(token);
+
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    private static String token(String subject, Instant expiresAt) {
+        return JWT.create()
+                .withSubject(subject)
+                .withExpiresAt(Date.from(expiresAt))
+                .sign(Algorithm.HMAC256("secret"));
+    }
+}
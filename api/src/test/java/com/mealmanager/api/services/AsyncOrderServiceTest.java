@@ -0,0 +1,92 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import com.mealmanager.api.dto.OrderStatusDTO;
+import com.mealmanager.api.dto.RecipeOrderDTO;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.repository.RecipeRepository;
+import com.mealmanager.api.repository.SysUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        // the test drives the worker itself
+        "app.orders.async.poll-interval-ms=3600000",
+        "app.orders.async.batch-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresContainerConfig.class, AsyncOrderService.class, RecipeOrderService.class, EmailOutboxService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AsyncOrderServiceTest {
+
+    @Autowired
+    private AsyncOrderService asyncOrderService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SysUserRepository sysUserRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void acceptedOrdersArePersistedAndPlacedInBatches() {
+        List<Recipe> recipes = recipeRepository.saveAll(List.of(
+                new Recipe("Chili", null, null, false), new Recipe("Stew", null, null, false)));
+        SysUser user = sysUserRepository.save(new SysUser("First", "Last", "async@mealmanager.com", true, null));
+        List<Long> recipeIds = List.of(recipes.get(0).getId(), recipes.get(1).getId());
+
+        String first = submit(recipeIds, List.of(user.getId()));
+        String second = submit(List.of(recipeIds.get(0)), List.of(user.getId()));
+        String unknownUser = submit(recipeIds, List.of(-1L));
+
+        // accepted orders are in the database before any of them is placed
+        assertEquals(3, count("SELECT COUNT(*) FROM recipeorder_async WHERE status = 'QUEUED' AND request_id IN ('"
+                + first + "', '" + second + "', '" + unknownUser + "')"));
+        assertEquals(OrderStatusDTO.Status.QUEUED, asyncOrderService.getStatus(first).orElseThrow().getStatus());
+
+        asyncOrderService.placeQueuedOrders();
+
+        OrderStatusDTO firstStatus = asyncOrderService.getStatus(first).orElseThrow();
+        OrderStatusDTO secondStatus = asyncOrderService.getStatus(second).orElseThrow();
+        OrderStatusDTO unknownUserStatus = asyncOrderService.getStatus(unknownUser).orElseThrow();
+        assertEquals(OrderStatusDTO.Status.PLACED, firstStatus.getStatus());
+        assertEquals(OrderStatusDTO.Status.PLACED, secondStatus.getStatus());
+        assertEquals(OrderStatusDTO.Status.FAILED, unknownUserStatus.getStatus());
+        assertEquals("No valid user ids passed in", unknownUserStatus.getError());
+
+        assertNotNull(firstStatus.getOrderId());
+        assertEquals(2, count("SELECT COUNT(*) FROM recipeorderitem WHERE orderid = " + firstStatus.getOrderId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM recipeorderitem WHERE orderid = " + secondStatus.getOrderId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM recipeorderrecipient WHERE orderid = " + firstStatus.getOrderId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM recipeorder_async WHERE status = 'QUEUED'"));
+    }
+
+    private String submit(List<Long> recipeIds, List<Long> userIds) {
+        RecipeOrderDTO order = new RecipeOrderDTO();
+        order.setSelectedRecipes(recipeIds);
+        order.setSelectedUserIds(userIds);
+        order.setMessage("async");
+        return asyncOrderService.submit(order).orElseThrow().getRequestId();
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
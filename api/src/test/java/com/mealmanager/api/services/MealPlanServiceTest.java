@@ -0,0 +1,133 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import com.mealmanager.api.events.RecipeChangedEvent;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.repository.RecipeRepository;
+import com.mealmanager.api.repository.SysUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// recipe changes are detected through the recipe_catalog_version trigger, which only exists on Postgres
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresContainerConfig.class, MealPlanService.class, RecipeOrderService.class, EmailOutboxService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MealPlanServiceTest {
+
+    @MockBean
+    private RecipePopularityService recipePopularityService;
+
+    @Autowired
+    private MealPlanService mealPlanService;
+
+    @Autowired
+    private RecipeOrderService recipeOrderService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SysUserRepository sysUserRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Recipe> recipes;
+    private List<SysUser> users;
+
+    @BeforeEach
+    void setUp() {
+        recipes = recipeRepository.saveAll(List.of(
+                new Recipe("Chili", null, null, false),
+                new Recipe("Stew", null, null, false),
+                new Recipe("Curry", null, null, false),
+                new Recipe("Soup", null, null, false),
+                new Recipe("Retired", null, null, true)));
+        users = sysUserRepository.saveAll(List.of(new SysUser("First", "Last", "user@mealmanager.com", true)));
+        mealPlanService.onRecipeChanged(RecipeChangedEvent.reloadRequired());
+    }
+
+    @AfterEach
+    void deleteOtherInstanceChanges() {
+        jdbcTemplate.update("DELETE FROM recipeorderitem WHERE orderid = 9201");
+        jdbcTemplate.update("DELETE FROM recipeorder WHERE id = 9201");
+        jdbcTemplate.update("DELETE FROM recipe WHERE id = 9201");
+    }
+
+    @Test
+    void proposesDistinctEnabledRecipesOutsideRecentOrders() {
+        recipeOrderService.placeOrder("older", List.of(recipes.get(0)), users);
+        recipeOrderService.placeOrder("latest", List.of(recipes.get(1)), users);
+
+        for (int i = 0; i < 50; i++) {
+            Set<Long> ids = ids(mealPlanService.propose(100, 1));
+            assertFalse(ids.contains(recipes.get(1).getId()));
+            assertFalse(ids.contains(recipes.get(4).getId()));
+            assertTrue(ids.containsAll(Set.of(recipes.get(0).getId(), recipes.get(2).getId(), recipes.get(3).getId())));
+        }
+        Set<Long> withoutLastTwoOrders = ids(mealPlanService.propose(100, 2));
+        assertFalse(withoutLastTwoOrders.contains(recipes.get(0).getId()));
+        assertFalse(withoutLastTwoOrders.contains(recipes.get(1).getId()));
+        assertEquals(3, ids(mealPlanService.propose(3, 0)).size());
+    }
+
+    @Test
+    void favoursPopularRecipes() {
+        when(recipePopularityService.getOrderCount(anyLong())).thenReturn(0L);
+        when(recipePopularityService.getOrderCount(recipes.get(2).getId())).thenReturn(50L);
+
+        int curryFirst = 0;
+        for (int i = 0; i < 200; i++) {
+            if (mealPlanService.propose(1, 0).get(0).getId() == recipes.get(2).getId()) {
+                curryFirst++;
+            }
+        }
+        // Curry has weight 51 against 1 for every other enabled recipe, so it leads most of the time
+        assertTrue(curryFirst > 150, "Curry was proposed first " + curryFirst + " times");
+    }
+
+    @Test
+    void refreshPicksUpRecipesAndOrdersFromOtherInstances() {
+        mealPlanService.refresh();
+        // another instance adds a recipe and orders Stew, without any event reaching this one
+        jdbcTemplate.update("INSERT INTO recipe (id, name) VALUES (9201, 'Goulash')");
+        jdbcTemplate.update("INSERT INTO recipeorder (id, message, createdat, fulfilled) "
+                + "VALUES (9201, 'elsewhere', now() + interval '1 day', false)");
+        jdbcTemplate.update("INSERT INTO recipeorderitem (orderid, recipeid) VALUES (9201, ?)", recipes.get(1).getId());
+        assertFalse(ids(mealPlanService.propose(100, 0)).contains(9201L));
+
+        mealPlanService.refresh();
+
+        Set<Long> ids = ids(mealPlanService.propose(100, 1));
+        assertTrue(ids.contains(9201L));
+        assertFalse(ids.contains(recipes.get(1).getId()));
+    }
+
+    private static Set<Long> ids(List<Recipe> recipes) {
+        return recipes.stream().map(Recipe::getId).collect(Collectors.toCollection(HashSet::new));
+    }
+}
@@ -0,0 +1,93 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import com.mealmanager.api.dto.OrderStatsDTO;
+import com.mealmanager.api.events.OrderPlacedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "app.orders.analytics.fold-interval-ms=3600000")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresContainerConfig.class, OrderAnalyticsService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderAnalyticsServiceTest {
+
+    // a Wednesday; its ISO week runs from 2031-01-13 to 2031-01-19
+    private static final LocalDate WEDNESDAY = LocalDate.of(2031, 1, 15);
+
+    @Autowired
+    private OrderAnalyticsService analyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ordersCountBeforeAndAfterTheirDeltasAreFolded() {
+        analyticsService.onOrderPlaced(order(WEDNESDAY, 3, 1));
+        analyticsService.onOrderPlaced(order(WEDNESDAY, 1, 2));
+        analyticsService.onOrderPlaced(order(WEDNESDAY.plusDays(1), 2, 1));
+
+        List<OrderStatsDTO> beforeFold = analyticsService.getDailyStats(WEDNESDAY, WEDNESDAY.plusDays(1));
+        analyticsService.foldDeltas();
+        List<OrderStatsDTO> afterFold = analyticsService.getDailyStats(WEDNESDAY, WEDNESDAY.plusDays(1));
+
+        assertEquals(0, count("SELECT COUNT(*) FROM order_daily_stats_delta"));
+        for (List<OrderStatsDTO> stats : List.of(beforeFold, afterFold)) {
+            assertEquals(2, stats.size());
+            assertStats(stats.get(0), WEDNESDAY, 2, 4, 3);
+            assertStats(stats.get(1), WEDNESDAY.plusDays(1), 1, 2, 1);
+        }
+
+        // a later order adds to the folded day
+        analyticsService.onOrderPlaced(order(WEDNESDAY, 1, 1));
+        analyticsService.foldDeltas();
+        assertStats(analyticsService.getDailyStats(WEDNESDAY, WEDNESDAY).get(0), WEDNESDAY, 3, 5, 4);
+    }
+
+    @Test
+    void weeklyStatsCountWholeWeeksAtTheEdgesOfTheRange() {
+        LocalDate monday = WEDNESDAY.plusWeeks(10).minusDays(2);
+        analyticsService.onOrderPlaced(order(monday, 1, 1));
+        analyticsService.onOrderPlaced(order(monday.plusDays(6), 1, 1));
+        analyticsService.foldDeltas();
+
+        // the range starts and ends mid-week, but both orders of the week are counted
+        List<OrderStatsDTO> stats = analyticsService.getWeeklyStats(monday.plusDays(2), monday.plusDays(3));
+
+        assertEquals(1, stats.size());
+        assertStats(stats.get(0), monday, 2, 2, 2);
+    }
+
+    private static OrderPlacedEvent order(LocalDate day, int recipes, int recipients) {
+        return new OrderPlacedEvent(0, Timestamp.valueOf(LocalDateTime.of(day, LocalTime.NOON)),
+                Collections.nCopies(recipes, 1L), Collections.nCopies(recipients, 1L));
+    }
+
+    private static void assertStats(OrderStatsDTO stats, LocalDate period, long orders, long recipes, long recipients) {
+        assertEquals(period, stats.getPeriodStart());
+        assertEquals(orders, stats.getOrderCount());
+        assertEquals(recipes, stats.getRecipeCount());
+        assertEquals(recipients, stats.getRecipientCount());
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
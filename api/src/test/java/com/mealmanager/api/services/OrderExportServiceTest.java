@@ -0,0 +1,117 @@
+package com.mealmanager.api.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mealmanager.api.PostgresContainerConfig;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.repository.RecipeRepository;
+import com.mealmanager.api.repository.SysUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers(disabledWithoutDocker = true)
+// chunks of two orders, so the three orders span two chunks
+@DataJpaTest(properties = "app.orders.export.chunk-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresContainerConfig.class, JacksonAutoConfiguration.class,
+        OrderExportService.class, RecipeOrderService.class, EmailOutboxService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderExportServiceTest {
+
+    @Autowired
+    private OrderExportService exportService;
+
+    @Autowired
+    private RecipeOrderService recipeOrderService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SysUserRepository sysUserRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> orderIds = new ArrayList<>();
+    private Recipe chili;
+    private Recipe stew;
+    private SysUser user;
+
+    @BeforeEach
+    void placeOrders() {
+        jdbcTemplate.execute("TRUNCATE recipeorder, recipeorderitem, recipeorderrecipient");
+        chili = recipeRepository.save(new Recipe("Chili", null, null, false));
+        stew = recipeRepository.save(new Recipe("Stew, slow cooked", null, null, false));
+        user = sysUserRepository.save(new SysUser("Ada", "Lovelace", "ada@example.com", true, null));
+        orderIds.add(recipeOrderService.placeOrder("first", List.of(stew, chili), List.of(user)).getId());
+        orderIds.add(recipeOrderService.placeOrder(null, List.of(chili), List.of(user)).getId());
+        orderIds.add(recipeOrderService.placeOrder("no recipes", List.of(), List.of(user)).getId());
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerOrderInIdOrder() throws IOException {
+        String[] lines = export(OrderExportService.Format.NDJSON).split("\n");
+
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(orderIds.get(i).longValue(), objectMapper.readTree(lines[i]).get("id").asLong());
+        }
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("first", first.get("message").asText());
+        // recipes in id order
+        assertEquals(chili.getId(), first.get("recipes").get(0).get("id").asLong());
+        assertEquals("Stew, slow cooked", first.get("recipes").get(1).get("name").asText());
+        assertEquals("ada@example.com", first.get("recipients").get(0).get("email").asText());
+        assertEquals(0, objectMapper.readTree(lines[2]).get("recipes").size());
+    }
+
+    @Test
+    void csvHasOneLinePerRecipeAndRecipient() throws IOException {
+        String[] lines = export(OrderExportService.Format.CSV).split("\n");
+
+        assertEquals("order_id,created_at,fulfilled,message,line_type,ref_id,name,email", lines[0]);
+        // 3 lines for the first order, 2 for the second, and a recipe line without recipe for the third
+        assertEquals(1 + 3 + 2 + 2, lines.length);
+        assertEquals(orderIds.get(0) + ",first,recipe," + stew.getId() + ",\"Stew, slow cooked\",",
+                withoutCreatedAt(lines[2]));
+        assertEquals(orderIds.get(2) + ",no recipes,recipe,,,", withoutCreatedAt(lines[6]));
+        assertEquals(orderIds.get(2) + ",no recipes,recipient," + user.getId() + ",Ada Lovelace,ada@example.com",
+                withoutCreatedAt(lines[7]));
+    }
+
+    private String export(OrderExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Drops the created_at and fulfilled columns.
+     */
+    private static String withoutCreatedAt(String line) {
+        String[] fields = line.split(",", 4);
+        return fields[0] + "," + fields[3];
+    }
+}
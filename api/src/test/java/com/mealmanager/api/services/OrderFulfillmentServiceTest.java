@@ -0,0 +1,125 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import com.mealmanager.api.dto.OrderFulfillmentDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Testcontainers(disabledWithoutDocker = true)
+// chunks of two orders, so ranges of a few orders take several chunks
+@DataJpaTest(properties = "app.orders.fulfillment.chunk-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresContainerConfig.class, OrderFulfillmentService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderFulfillmentServiceTest {
+
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2040, 1, 1, 0, 0);
+    private static final LocalDateTime FEBRUARY = JANUARY.plusMonths(1);
+
+    @Autowired
+    private OrderFulfillmentService fulfillmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertOrders() {
+        jdbcTemplate.update("DELETE FROM recipeorder WHERE createdat >= ?", Timestamp.valueOf(JANUARY));
+        // five unfulfilled and one fulfilled order in January, one unfulfilled order in February
+        for (long id = 4001; id <= 4005; id++) {
+            insertOrder(id, JANUARY.plusDays(id - 4000), false);
+        }
+        insertOrder(4006, JANUARY.plusDays(10), true);
+        insertOrder(4007, FEBRUARY, false);
+    }
+
+    @Test
+    void rangeUpdateWalksEveryChunk() {
+        assertEquals(5, fulfillmentService.updateFulfillment(range(JANUARY, FEBRUARY, true)));
+
+        assertEquals(6, fulfilledCount());
+        assertEquals(false, isFulfilled(4007));
+    }
+
+    @Test
+    void rangeUpdateStopsAfterAnEmptyChunkWhenTheCountIsAMultipleOfTheChunkSize() {
+        assertEquals(5, fulfillmentService.updateFulfillment(range(JANUARY, FEBRUARY, true)));
+        // unfulfilled again: six orders, three full chunks
+        assertEquals(6, fulfillmentService.updateFulfillment(range(JANUARY, FEBRUARY, false)));
+
+        assertEquals(0, fulfilledCount());
+    }
+
+    @Test
+    void ordersCreatedAtTheSameTimeAreNotSkippedAtChunkBoundaries() {
+        LocalDateTime sameTime = JANUARY.plusDays(20);
+        for (long id = 4011; id <= 4013; id++) {
+            insertOrder(id, sameTime, false);
+        }
+
+        assertEquals(8, fulfillmentService.updateFulfillment(range(JANUARY, FEBRUARY, true)));
+        assertEquals(9, fulfilledCount());
+    }
+
+    @Test
+    void openRangeUpdatesEverythingAfterTheStart() {
+        assertEquals(6, fulfillmentService.updateFulfillment(range(JANUARY.plusDays(1), null, true)));
+
+        assertEquals(true, isFulfilled(4007));
+    }
+
+    @Test
+    void idUpdateSkipsDuplicatesAndOrdersAlreadyInThatState() {
+        OrderFulfillmentDTO request = new OrderFulfillmentDTO();
+        request.setOrderIds(List.of(4001L, 4002L, 4002L, 4003L, 4006L));
+        request.setFulfilled(true);
+
+        assertEquals(3, fulfillmentService.updateFulfillment(request));
+        assertEquals(4, fulfilledCount());
+    }
+
+    @Test
+    void selectingByIdsAndRangeIsRejected() {
+        OrderFulfillmentDTO request = range(JANUARY, FEBRUARY, true);
+        request.setOrderIds(List.of(4001L));
+
+        assertThrows(IllegalArgumentException.class, () -> fulfillmentService.updateFulfillment(request));
+    }
+
+    private void insertOrder(long id, LocalDateTime createdAt, boolean fulfilled) {
+        jdbcTemplate.update("INSERT INTO recipeorder (id, message, createdat, fulfilled) VALUES (?, 'test', ?, ?)",
+                id, Timestamp.valueOf(createdAt), fulfilled);
+    }
+
+    private long fulfilledCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recipeorder WHERE createdat >= ? AND fulfilled",
+                Long.class, Timestamp.valueOf(JANUARY));
+    }
+
+    private Boolean isFulfilled(long id) {
+        return jdbcTemplate.queryForObject("SELECT fulfilled FROM recipeorder WHERE id = ?", Boolean.class, id);
+    }
+
+    private static OrderFulfillmentDTO range(LocalDateTime from, LocalDateTime to, boolean fulfilled) {
+        OrderFulfillmentDTO request = new OrderFulfillmentDTO();
+        request.setFrom(Timestamp.valueOf(from));
+        request.setTo(to == null ? null : Timestamp.valueOf(to));
+        request.setFulfilled(fulfilled);
+        return request;
+    }
+}
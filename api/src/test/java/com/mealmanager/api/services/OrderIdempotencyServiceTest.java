@@ -0,0 +1,110 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.RecipeOrder;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.repository.RecipeRepository;
+import com.mealmanager.api.repository.SysUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresContainerConfig.class, OrderIdempotencyService.class, RecipeOrderService.class, EmailOutboxService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIdempotencyServiceTest {
+
+    @Autowired
+    private OrderIdempotencyService idempotencyService;
+
+    @Autowired
+    private RecipeOrderService recipeOrderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SysUserRepository sysUserRepository;
+
+    private final AtomicInteger placed = new AtomicInteger();
+    private List<Recipe> recipes;
+    private List<SysUser> users;
+
+    @BeforeEach
+    void setUp() {
+        recipes = recipeRepository.saveAll(List.of(new Recipe("Chili", null, null, false)));
+        users = sysUserRepository.saveAll(List.of(new SysUser("First", "Last", "user@mealmanager.com", true, null)));
+    }
+
+    @Test
+    void repeatedKeyReturnsTheCurrentStateOfTheFirstOrder() {
+        String key = UUID.randomUUID().toString();
+        String hash = hash("message");
+
+        RecipeOrder first = idempotencyService.placeOnce(key, hash, placeOrder("message", key, hash));
+        jdbcTemplate.update("UPDATE recipeorder SET fulfilled = true WHERE id = ?", first.getId());
+        RecipeOrder repeated = idempotencyService.placeOnce(key, hash, placeOrder("message", key, hash));
+
+        assertEquals(1, placed.get());
+        assertEquals(first.getId(), repeated.getId());
+        assertFalse(first.isFulfilled());
+        assertTrue(repeated.isFulfilled());
+    }
+
+    @Test
+    void reusedKeyWithADifferentOrderIsRejected() {
+        String key = UUID.randomUUID().toString();
+        idempotencyService.placeOnce(key, hash("message"), placeOrder("message", key, hash("message")));
+
+        assertThrows(OrderIdempotencyService.KeyReusedException.class,
+                () -> idempotencyService.placeOnce(key, hash("other"), placeOrder("other", key, hash("other"))));
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    void keyRecordedByAnotherInstanceIsResolvedFromTheDatabase() {
+        String key = UUID.randomUUID().toString();
+        String hash = hash("message");
+        RecipeOrder first = recipeOrderService.placeOrder("message", recipes, users, key, hash);
+
+        assertEquals(first.getId(), idempotencyService.placeOnce(key, hash, placeOrder("message", key, hash)).getId());
+        assertThrows(OrderIdempotencyService.KeyReusedException.class,
+                () -> idempotencyService.placeOnce(key, hash("other"), placeOrder("other", key, hash("other"))));
+        assertEquals(0, placed.get());
+    }
+
+    private String hash(String message) {
+        return OrderIdempotencyService.requestHash(message,
+                List.of(recipes.get(0).getId()), List.of(users.get(0).getId()));
+    }
+
+    private Supplier<RecipeOrder> placeOrder(String message, String key, String hash) {
+        return () -> {
+            placed.incrementAndGet();
+            return recipeOrderService.placeOrder(message, recipes, users, key, hash);
+        };
+    }
+}
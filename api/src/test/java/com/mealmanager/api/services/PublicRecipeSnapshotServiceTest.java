@@ -0,0 +1,83 @@
+package com.mealmanager.api.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.repository.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PublicRecipeSnapshotServiceTest {
+
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final PublicRecipeSnapshotService service = new PublicRecipeSnapshotService(recipeRepository, new ObjectMapper());
+
+    @AfterEach
+    void stop() {
+        service.stop();
+    }
+
+    @Test
+    void gzipHoldsTheSameJsonUnderItsOwnEtag() throws IOException {
+        when(recipeRepository.findByDisabled(false)).thenReturn(List.of(new Recipe("Chili", "Hot", null, false)));
+        service.load();
+        PublicRecipeSnapshotService.Snapshot snapshot = service.getSnapshot();
+
+        assertFalse(snapshot.isEmpty());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.getGzip()))) {
+            assertArrayEquals(snapshot.getJson(), in.readAllBytes());
+        }
+        assertTrue(snapshot.getEtag(false).startsWith("\""));
+        assertNotEquals(snapshot.getEtag(false), snapshot.getEtag(true));
+    }
+
+    @Test
+    void eitherEtagMatchesWeakenedOrInAList() throws IOException {
+        when(recipeRepository.findByDisabled(false)).thenReturn(List.of(new Recipe("Chili", "Hot", null, false)));
+        service.load();
+        PublicRecipeSnapshotService.Snapshot snapshot = service.getSnapshot();
+
+        assertTrue(snapshot.matches(snapshot.getEtag(false)));
+        assertTrue(snapshot.matches("W/" + snapshot.getEtag(true)));
+        assertTrue(snapshot.matches("\"other\", " + snapshot.getEtag(true)));
+        assertTrue(snapshot.matches("*"));
+        assertFalse(snapshot.matches("\"other\""));
+        assertFalse(snapshot.matches(null));
+    }
+
+    @Test
+    void versionCheckRebuildsOnlyWhenTheCatalogChanged() throws Exception {
+        when(recipeRepository.getCatalogVersion()).thenReturn(1L);
+        when(recipeRepository.findByDisabled(false)).thenReturn(List.of(new Recipe("Chili", "Hot", null, false)));
+        service.load();
+        PublicRecipeSnapshotService.Snapshot built = service.getSnapshot();
+
+        service.checkVersion();
+        Thread.sleep(100);
+        assertSame(built, service.getSnapshot());
+
+        // another instance added a recipe
+        when(recipeRepository.getCatalogVersion()).thenReturn(2L);
+        when(recipeRepository.findByDisabled(false)).thenReturn(
+                List.of(new Recipe("Chili", "Hot", null, false), new Recipe("Stew", null, null, false)));
+        service.checkVersion();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getSnapshot() == built && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(built.matches(service.getSnapshot().getEtag(false)));
+    }
+}
@@ -0,0 +1,106 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.dto.RecipeSuggestionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipeAutocompleteIndexTest {
+
+    private final RecipeAutocompleteIndex index = RecipeAutocompleteIndex.build(Map.of(
+            1L, "Chicken Curry",
+            2L, "Curried Lentil Soup",
+            3L, "Crème Brûlée",
+            4L, "Beef Stew"));
+
+    @Test
+    void namePrefixMatchesRankBeforeWordPrefixMatches() {
+        assertEquals(List.of("Curried Lentil Soup", "Chicken Curry"), names(index.suggest("cur", 10)));
+    }
+
+    @Test
+    void matchesMultipleWordsAndIgnoresAccentsAndCase() {
+        assertEquals(List.of("Chicken Curry"), names(index.suggest("CHICKEN cu", 10)));
+        assertEquals(List.of("Crème Brûlée"), names(index.suggest("creme bru", 10)));
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertEquals("Chicken Curry", names(index.suggest("chiken curry", 10)).get(0));
+        assertEquals("Beef Stew", names(index.suggest("beef stwe", 10)).get(0));
+    }
+
+    @Test
+    void returnsNothingForUnrelatedOrBlankQueries() {
+        assertTrue(index.suggest("pizza", 10).isEmpty());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    void limitsSuggestions() {
+        assertEquals(1, index.suggest("cur", 1).size());
+    }
+
+    @Test
+    void keepsTheAlphabeticallyFirstOfManyEqualMatches() {
+        Map<Long, String> recipeNames = new HashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            recipeNames.put(id, String.format("Soup %03d", 201 - id));
+        }
+        RecipeAutocompleteIndex soups = RecipeAutocompleteIndex.build(recipeNames)
+                .withChanges(Map.of(300L, "Soup 000"), List.of(200L));
+
+        assertEquals(List.of("Soup 000", "Soup 002", "Soup 003"), names(soups.suggest("soup", 3)));
+        assertEquals(List.of("Soup 000", "Soup 002", "Soup 003"), names(soups.suggest("sou", 3)));
+    }
+
+    @Test
+    void changesReplaceTheirBaseEntries() {
+        RecipeAutocompleteIndex changed = index.withChanges(
+                Map.of(1L, "Chicken Tikka", 5L, "Curry Laksa"), List.of(4L));
+
+        assertEquals(List.of("Curried Lentil Soup", "Curry Laksa"), names(changed.suggest("cur", 10)));
+        assertEquals("Chicken Tikka", names(changed.suggest("chiken tika", 10)).get(0));
+        assertTrue(changed.suggest("beef", 10).isEmpty());
+        assertEquals(4, changed.size());
+        // the original index is unchanged
+        assertEquals(List.of("Curried Lentil Soup", "Chicken Curry"), names(index.suggest("cur", 10)));
+    }
+
+    @Test
+    void recipeRemovedAfterAChangeDisappears() {
+        RecipeAutocompleteIndex changed = index
+                .withChanges(Map.of(5L, "Curry Laksa"), List.of())
+                .withChanges(Map.of(), List.of(5L, 2L));
+
+        assertEquals(List.of("Chicken Curry"), names(changed.suggest("cur", 10)));
+        assertEquals(3, changed.size());
+    }
+
+    @Test
+    void manyChangesAreMergedIntoAnIndexWithTheSameResults() {
+        Map<Long, String> recipes = new HashMap<>(Map.of(1L, "Chicken Curry", 2L, "Curried Lentil Soup"));
+        RecipeAutocompleteIndex changed = RecipeAutocompleteIndex.build(recipes);
+        for (long id = 100; id < 300; id++) {
+            String name = "Soup number " + id;
+            changed = changed.withChanges(Map.of(id, name), List.of());
+            recipes.put(id, name);
+        }
+        RecipeAutocompleteIndex rebuilt = RecipeAutocompleteIndex.build(recipes);
+
+        assertEquals(202, changed.size());
+        for (String query : List.of("cur", "soup number 15", "sup numbr 2", "lentil")) {
+            assertEquals(names(rebuilt.suggest(query, 20)), names(changed.suggest(query, 20)));
+        }
+    }
+
+    private static List<String> names(List<RecipeSuggestionDTO> suggestions) {
+        return suggestions.stream().map(RecipeSuggestionDTO::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,51 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.dto.RecipeSuggestionDTO;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecipeAutocompleteServiceTest {
+
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final RecipeAutocompleteService service = new RecipeAutocompleteService(recipeRepository);
+
+    @Test
+    void versionCheckReloadsOnlyWhenTheCatalogChanged() {
+        when(recipeRepository.getCatalogVersion()).thenReturn(1L);
+        when(recipeRepository.findByDisabled(false)).thenReturn(List.of(recipe(1L, "Chili")));
+        service.load();
+
+        service.checkVersion();
+        verify(recipeRepository, times(1)).findByDisabled(false);
+
+        // another instance added a recipe
+        when(recipeRepository.getCatalogVersion()).thenReturn(2L);
+        when(recipeRepository.findByDisabled(false)).thenReturn(List.of(recipe(1L, "Chili"), recipe(2L, "Chicken Stew")));
+        service.checkVersion();
+
+        assertEquals(List.of("Chicken Stew", "Chili"), names(service.suggest("chi", 10)));
+        service.checkVersion();
+        verify(recipeRepository, times(2)).findByDisabled(false);
+    }
+
+    private static Recipe recipe(long id, String name) {
+        Recipe recipe = new Recipe(name, null, null, false);
+        ReflectionTestUtils.setField(recipe, "id", id);
+        return recipe;
+    }
+
+    private static List<String> names(List<RecipeSuggestionDTO> suggestions) {
+        return suggestions.stream().map(RecipeSuggestionDTO::getName).collect(Collectors.toList());
+    }
+}
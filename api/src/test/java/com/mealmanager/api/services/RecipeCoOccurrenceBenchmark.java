@@ -0,0 +1,126 @@
+package com.mealmanager.api.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Build and query time of {@link RecipeCoOccurrenceIndex}, next to the same counts kept in boxed
+ * nested HashMaps. Orders pick recipes with a skew towards popular ones, as real order history does.
+ * Run with {@code mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=RecipeCoOccurrence}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RecipeCoOccurrenceBenchmark {
+
+    private static final int MAX_RECIPES_PER_ORDER = 8;
+    private static final int RECOMMENDATIONS = 10;
+
+    @Param({"10000", "100000"})
+    private int orderCount;
+
+    @Param({"1000"})
+    private int recipeCount;
+
+    private long[][] orders;
+    private long[] queryRecipes;
+    private RecipeCoOccurrenceIndex index;
+    private Map<Long, Map<Long, Integer>> boxedIndex;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        orders = new long[orderCount][];
+        for (int i = 0; i < orderCount; i++) {
+            long[] order = new long[1 + random.nextInt(MAX_RECIPES_PER_ORDER)];
+            for (int j = 0; j < order.length; j++) {
+                order[j] = skewedRecipe(random);
+            }
+            orders[i] = order;
+        }
+        queryRecipes = new long[1024];
+        for (int i = 0; i < queryRecipes.length; i++) {
+            queryRecipes[i] = skewedRecipe(random);
+        }
+        index = buildIndex();
+        boxedIndex = buildBoxedIndex();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RecipeCoOccurrenceIndex buildIndex() {
+        RecipeCoOccurrenceIndex built = new RecipeCoOccurrenceIndex();
+        for (long[] order : orders) {
+            built.addOrder(order, order.length);
+        }
+        return built;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Long, Map<Long, Integer>> buildBoxedIndex() {
+        Map<Long, Map<Long, Integer>> built = new HashMap<>();
+        for (long[] order : orders) {
+            long[] distinct = Arrays.stream(order).distinct().toArray();
+            for (long recipe : distinct) {
+                Map<Long, Integer> row = built.computeIfAbsent(recipe, id -> new HashMap<>());
+                for (long other : distinct) {
+                    if (other != recipe) {
+                        row.merge(other, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        return built;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Map.Entry<Long, Long>> query() {
+        return index.top(nextQueryRecipe(), RECOMMENDATIONS);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Map.Entry<Long, Integer>> queryBoxed() {
+        return boxedIndex.getOrDefault(nextQueryRecipe(), Map.of()).entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .limit(RECOMMENDATIONS)
+                .collect(Collectors.toList());
+    }
+
+    private long nextQueryRecipe() {
+        nextQuery = (nextQuery + 1) & (queryRecipes.length - 1);
+        return queryRecipes[nextQuery];
+    }
+
+    /**
+     * Squaring a uniform draw makes low recipe ids far more likely, a rough stand-in for a few favourite recipes.
+     */
+    private long skewedRecipe(Random random) {
+        double draw = random.nextDouble();
+        return 1 + (long) (draw * draw * recipeCount);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mealmanager.api.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipeCoOccurrenceIndexTest {
+
+    @Test
+    void ranksRecipesByOrdersSharedThenById() {
+        RecipeCoOccurrenceIndex index = new RecipeCoOccurrenceIndex();
+        index.addOrder(List.of(1L, 2L, 3L));
+        index.addOrder(List.of(1L, 3L));
+        index.addOrder(List.of(1L, 4L, 4L));
+        index.addOrder(List.of(1L, 5L));
+        index.addOrder(List.of(2L, 3L));
+
+        assertEquals(List.of(Map.entry(3L, 2L), Map.entry(2L, 1L), Map.entry(4L, 1L), Map.entry(5L, 1L)), index.top(1L, 10));
+        assertEquals(List.of(3L, 2L), ids(index.top(1L, 2)));
+        assertEquals(List.of(1L, 2L), ids(index.top(3L, 10)));
+    }
+
+    @Test
+    void unknownAndSingleRecipeOrdersHaveNoRecommendations() {
+        RecipeCoOccurrenceIndex index = new RecipeCoOccurrenceIndex();
+        index.addOrder(List.of(7L));
+        index.addOrder(List.of(8L, 8L));
+
+        assertTrue(index.top(7L, 5).isEmpty());
+        assertTrue(index.top(8L, 5).isEmpty());
+        assertTrue(index.top(9L, 5).isEmpty());
+    }
+
+    @Test
+    void keepsTheBestWhenARecipeHasManyCompanions() {
+        RecipeCoOccurrenceIndex index = new RecipeCoOccurrenceIndex();
+        for (long companion = 2; companion <= 500; companion++) {
+            for (long times = 0; times < companion % 7; times++) {
+                index.addOrder(List.of(1L, companion));
+            }
+        }
+
+        List<Map.Entry<Long, Long>> top = index.top(1L, 3);
+        assertEquals(List.of(6L, 13L, 20L), ids(top));
+        assertEquals(6L, top.get(0).getValue());
+    }
+
+    private static List<Long> ids(List<Map.Entry<Long, Long>> entries) {
+        return entries.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+}
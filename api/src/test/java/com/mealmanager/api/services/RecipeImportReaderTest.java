@@ -0,0 +1,96 @@
+package com.mealmanager.api.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipeImportReaderTest {
+
+    @Test
+    void csvWithHeaderMapsColumnsByName() throws IOException {
+        List<RecipeImportReader.Row> rows = readCsv("RecipeURL,Name,Disabled\r\n"
+                + "https://example.com/chili,Chili,true\r\n"
+                + "https://example.com/stew,Stew,\r\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("Chili", rows.get(0).name);
+        assertEquals("https://example.com/chili", rows.get(0).recipeUrl);
+        assertTrue(rows.get(0).disabled);
+        assertNull(rows.get(1).description);
+        assertFalse(rows.get(1).disabled);
+        assertEquals(3, rows.get(1).number);
+    }
+
+    @Test
+    void csvWithoutHeaderReadsQuotedFieldsSpanningLines() throws IOException {
+        List<RecipeImportReader.Row> rows = readCsv("Curry,\"Spicy, with \"\"extra\"\" heat\nand rice\",https://example.com\n"
+                + "\n"
+                + "Soup\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("Spicy, with \"extra\" heat\nand rice", rows.get(0).description);
+        assertEquals("Soup", rows.get(1).name);
+        assertEquals(3, rows.get(1).number);
+    }
+
+    @Test
+    void csvReportsInvalidRowsAndKeepsReading() throws IOException {
+        List<RecipeImportReader.Row> rows = readCsv(",no name\nChili,,,maybe\nStew\n" + "x".repeat(300) + "\n");
+
+        assertEquals("Name is required", rows.get(0).error);
+        assertEquals("Disabled must be true or false", rows.get(1).error);
+        assertTrue(rows.get(2).isValid());
+        assertEquals("Name is longer than 255 characters", rows.get(3).error);
+    }
+
+    @Test
+    void csvStopsAtAnUnclosedQuote() throws IOException {
+        List<RecipeImportReader.Row> rows = readCsv("Chili\n\"Stew\nSoup\n");
+
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).isValid());
+        assertEquals("Quoted field is never closed", rows.get(1).error);
+    }
+
+    @Test
+    void ndjsonReadsOneRecipePerLine() throws IOException {
+        RecipeImportReader reader = RecipeImportReader.ndjson(new BufferedReader(new StringReader(
+                "{\"name\":\"Chili\",\"recipeURL\":\"https://example.com\",\"disabled\":true}\n"
+                + "\n"
+                + "{\"name\":\"Stew\",\"disabled\":\"no\"}\n"
+                + "not json\n"
+                + "[1]\n")), new ObjectMapper());
+        List<RecipeImportReader.Row> rows = readAll(reader);
+
+        assertEquals(4, rows.size());
+        assertEquals("https://example.com", rows.get(0).recipeUrl);
+        assertTrue(rows.get(0).disabled);
+        assertEquals("Disabled must be true or false", rows.get(1).error);
+        assertEquals(3, rows.get(1).number);
+        assertTrue(rows.get(2).error.startsWith("Invalid JSON"));
+        assertEquals("Expected a JSON object", rows.get(3).error);
+    }
+
+    private static List<RecipeImportReader.Row> readCsv(String csv) throws IOException {
+        return readAll(RecipeImportReader.csv(new BufferedReader(new StringReader(csv))));
+    }
+
+    private static List<RecipeImportReader.Row> readAll(RecipeImportReader reader) throws IOException {
+        List<RecipeImportReader.Row> rows = new ArrayList<>();
+        RecipeImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import com.mealmanager.api.config.HibernateCacheConfig;
+import com.mealmanager.api.dto.RecipeImportReportDTO;
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+// chunks of three rows, so a bad row takes its chunk through the row-by-row retry
+@DataJpaTest(properties = {
+        "app.recipes.import.chunk-size=3",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.javax.persistence.sharedCache.mode=ENABLE_SELECTIVE"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresContainerConfig.class, HibernateCacheConfig.class, JacksonAutoConfiguration.class, RecipeImportService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipeImportServiceTest {
+
+    @Autowired
+    private RecipeImportService importService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Test
+    void badRowOnlyCostsItselfAndImportedIdsStayClearOfHibernate() throws IOException {
+        // Hibernate takes a block of ids before the import and keeps handing them out after it
+        Recipe before = recipeRepository.save(new Recipe("Before import", null, null, false));
+        List<Recipe> cached = recipeRepository.findAll();
+
+        // Postgres rejects the NUL character, which the reader lets through
+        String input = "{\"name\": \"Imported 1\"}\n"
+                + "{\"name\": \"Imported 2\"}\n"
+                + "{\"name\": \"Bad \\u0000 row\"}\n"
+                + "{\"name\": \"Imported 4\"}\n"
+                + "{\"name\": \"Imported 5\"}\n";
+        RecipeImportReportDTO report = importService.importRecipes(RecipeImportService.Format.NDJSON,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(1, report.getErrors().size());
+        assertEquals(3, report.getErrors().get(0).getRow());
+
+        // the cached query result was evicted, so the imported recipes show up
+        Map<String, Recipe> byName = recipeRepository.findAll().stream()
+                .collect(Collectors.toMap(Recipe::getName, Function.identity()));
+        assertEquals(cached.size() + 4, byName.size());
+        Set<Long> importedIds = new HashSet<>();
+        for (String name : List.of("Imported 1", "Imported 2", "Imported 4", "Imported 5")) {
+            assertTrue(byName.containsKey(name), name);
+            importedIds.add(byName.get(name).getId());
+        }
+        assertEquals(4, importedIds.size());
+        assertFalse(importedIds.contains(before.getId()));
+
+        // more than a block, so the saves use the rest of Hibernate's block and take a new one
+        List<Recipe> after = recipeRepository.saveAll(IntStream.range(0, 60)
+                .mapToObj(i -> new Recipe("After import " + i, null, null, false))
+                .collect(Collectors.toList()));
+        for (Recipe recipe : after) {
+            assertFalse(importedIds.contains(recipe.getId()), "id " + recipe.getId() + " was also imported");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresContainerConfig.class, RecipeOrderPartitionService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipeOrderPartitionServiceTest {
+
+    private static final long RECIPE_ID = 9001;
+    private static final long SYSUSER_ID = 9001;
+
+    @Autowired
+    private RecipeOrderPartitionService partitionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertRecipeAndUser() {
+        jdbcTemplate.update("INSERT INTO recipe (id, name) VALUES (?, 'Partition test recipe') ON CONFLICT DO NOTHING", RECIPE_ID);
+        jdbcTemplate.update("INSERT INTO sysuser (id, email, firstname, lastname) VALUES (?, 'p@example.com', 'P', 'T') "
+                + "ON CONFLICT DO NOTHING", SYSUSER_ID);
+    }
+
+    @Test
+    void newPartitionTakesOverOrdersFromTheDefaultPartition() {
+        insertOrder(1001, "2101-03-15 12:00:00");
+        assertEquals(1, count("SELECT COUNT(*) FROM recipeorder_default WHERE id = 1001"));
+
+        partitionService.createPartitions(YearMonth.of(2101, 3), YearMonth.of(2101, 3));
+
+        assertEquals(0, count("SELECT COUNT(*) FROM recipeorder_default WHERE id = 1001"));
+        assertEquals(1, count("SELECT COUNT(*) FROM recipeorder_p210103 WHERE id = 1001"));
+        assertEquals(1, count("SELECT COUNT(*) FROM recipeorder WHERE id = 1001"));
+
+        // orders of the month now go straight to the new partition, and creating it again is a no-op
+        insertOrder(1002, "2101-03-20 12:00:00");
+        partitionService.createPartitions(YearMonth.of(2101, 3), YearMonth.of(2101, 3));
+        assertEquals(2, count("SELECT COUNT(*) FROM recipeorder_p210103"));
+    }
+
+    @Test
+    void detachedPartitionTakesItsItemsAndRecipientsAlong() {
+        partitionService.createPartitions(YearMonth.of(1999, 1), YearMonth.of(1999, 2));
+        insertOrder(2001, "1999-01-10 12:00:00");
+        insertOrder(2002, "1999-02-10 12:00:00");
+        jdbcTemplate.update("INSERT INTO recipe_stats (recipeid, order_count) VALUES (?, 2) "
+                + "ON CONFLICT (recipeid) DO UPDATE SET order_count = 2", RECIPE_ID);
+
+        List<String> detached = partitionService.detachPartitionsBefore(YearMonth.of(1999, 2));
+
+        assertEquals(List.of("recipeorder_p199901"), detached);
+        assertEquals(0, count("SELECT COUNT(*) FROM recipeorder WHERE id = 2001"));
+        assertEquals(0, count("SELECT COUNT(*) FROM recipeorderitem WHERE orderid = 2001"));
+        assertEquals(0, count("SELECT COUNT(*) FROM recipeorderrecipient WHERE orderid = 2001"));
+        assertEquals(1, count("SELECT COUNT(*) FROM recipeorder_p199901 WHERE id = 2001"));
+        assertEquals(1, count("SELECT COUNT(*) FROM recipeorderitem_p199901 WHERE orderid = 2001"));
+        assertEquals(1, count("SELECT COUNT(*) FROM recipeorderrecipient_p199901 WHERE orderid = 2001"));
+        assertEquals(1, count("SELECT order_count FROM recipe_stats WHERE recipeid = " + RECIPE_ID));
+        // the newer month is untouched
+        assertEquals(1, count("SELECT COUNT(*) FROM recipeorderitem WHERE orderid = 2002"));
+    }
+
+    private void insertOrder(long orderId, String createdAt) {
+        jdbcTemplate.update("INSERT INTO recipeorder (id, message, createdat, fulfilled) VALUES (?, 'test', ?::timestamp, false)",
+                orderId, createdAt);
+        jdbcTemplate.update("INSERT INTO recipeorderitem (orderid, recipeid) VALUES (?, ?)", orderId, RECIPE_ID);
+        jdbcTemplate.update("INSERT INTO recipeorderrecipient (orderid, sysuserid) VALUES (?, ?)", orderId, SYSUSER_ID);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,148 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.model.Recipe;
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.repository.RecipeOrderItemRepository;
+import com.mealmanager.api.repository.RecipeOrderRecipientRepository;
+import com.mealmanager.api.repository.RecipeRepository;
+import com.mealmanager.api.repository.SysUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({RecipeOrderService.class, EmailOutboxService.class, RecipeOrderServiceTest.StatementCountingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipeOrderServiceTest {
+
+    private static final AtomicInteger executedStatements = new AtomicInteger();
+
+    @Autowired
+    private RecipeOrderService recipeOrderService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SysUserRepository sysUserRepository;
+
+    @Autowired
+    private RecipeOrderItemRepository recipeOrderItemRepository;
+
+    @Autowired
+    private RecipeOrderRecipientRepository recipeOrderRecipientRepository;
+
+    @Test
+    void placeOrderStatementCountDoesNotGrowWithOrderSize() {
+        int smallOrderStatements = countStatementsForOrder(2, 1);
+        int largeOrderStatements = countStatementsForOrder(20, 6);
+
+        assertTrue(smallOrderStatements > 0);
+        assertEquals(smallOrderStatements, largeOrderStatements);
+    }
+
+    @Test
+    void placeOrderWritesAllItemsAndRecipients() {
+        List<Recipe> recipes = createRecipes(5);
+        List<SysUser> users = createUsers(3);
+
+        long orderId = recipeOrderService.placeOrder("message", recipes, users).getId();
+
+        assertEquals(5, recipeOrderItemRepository.findByOrderId(orderId).size());
+        assertEquals(3, recipeOrderRecipientRepository.findByOrderId(orderId).size());
+    }
+
+    private int countStatementsForOrder(int recipeCount, int userCount) {
+        List<Recipe> recipes = createRecipes(recipeCount);
+        List<SysUser> users = createUsers(userCount);
+
+        executedStatements.set(0);
+        recipeOrderService.placeOrder("message", recipes, users);
+        return executedStatements.get();
+    }
+
+    private List<Recipe> createRecipes(int count) {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            recipes.add(new Recipe("Recipe " + i, null, null, false));
+        }
+        return recipeRepository.saveAll(recipes);
+    }
+
+    private List<SysUser> createUsers(int count) {
+        List<SysUser> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(new SysUser("First" + i, "Last" + i, "user" + i + "@mealmanager.com", true));
+        }
+        return sysUserRepository.saveAll(users);
+    }
+
+    /**
+     * Wraps the test DataSource so every statement sent to the database is counted.
+     * A JDBC batch counts as a single statement, matching a single round trip.
+     */
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource) {
+                        return proxy(DataSource.class, bean);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static <T> T proxy(Class<T> type, Object target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                Object result = invoke(method, target, args);
+                if (result instanceof Connection) {
+                    return proxy(Connection.class, result);
+                }
+                if (result instanceof Statement) {
+                    return proxy(method.getReturnType(), result);
+                }
+                if (method.getName().startsWith("execute")) {
+                    executedStatements.incrementAndGet();
+                }
+                return result;
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (java.lang.reflect.InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.PostgresContainerConfig;
+import com.mealmanager.api.events.OrderPlacedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "app.recipes.popularity.flush-interval-ms=3600000")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostgresContainerConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipePopularityServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clearStats() {
+        jdbcTemplate.update("DELETE FROM recipe_stats");
+    }
+
+    @Test
+    void countsAreReadableBeforeAndAfterTheFlush() {
+        RecipePopularityService service = newInstance();
+        service.onOrderPlaced(order(1L, 2L));
+        service.onOrderPlaced(order(1L));
+
+        assertEquals(2, service.getOrderCount(1L));
+        assertEquals(0, persistedCount(1L));
+
+        service.flush();
+        assertEquals(2, persistedCount(1L));
+        assertEquals(1, persistedCount(2L));
+        assertEquals(2, service.getOrderCount(1L));
+
+        // a flush without new orders writes nothing
+        service.flush();
+        assertEquals(2, persistedCount(1L));
+
+        service.onOrderPlaced(order(1L));
+        service.flush();
+        assertEquals(3, persistedCount(1L));
+        assertEquals(3, service.getOrderCount(1L));
+    }
+
+    @Test
+    void flushReloadsCountsOfOtherInstances() {
+        RecipePopularityService first = newInstance();
+        RecipePopularityService second = newInstance();
+        first.onOrderPlaced(order(1L));
+        second.onOrderPlaced(order(1L, 3L));
+        second.onOrderPlaced(order(3L));
+
+        first.flush();
+        second.flush();
+        assertEquals(2, second.getOrderCount(1L));
+        // the first instance sees the other's counts after its next flush
+        assertEquals(0, first.getOrderCount(3L));
+        first.flush();
+        assertEquals(2, first.getOrderCount(1L));
+        assertEquals(2, first.getOrderCount(3L));
+
+        // a new instance starts from the persisted counts
+        assertEquals(2, newInstance().getOrderCount(3L));
+    }
+
+    @Test
+    void topRecipesAreMostOrderedFirst() {
+        RecipePopularityService service = newInstance();
+        service.onOrderPlaced(order(1L, 2L, 3L));
+        service.onOrderPlaced(order(2L, 3L));
+        service.onOrderPlaced(order(3L));
+
+        List<Map.Entry<Long, Long>> top = service.getTopRecipes(2);
+
+        assertEquals(List.of(Map.entry(3L, 3L), Map.entry(2L, 2L)), top);
+    }
+
+    private RecipePopularityService newInstance() {
+        RecipePopularityService service = new RecipePopularityService(jdbcTemplate, transactionManager);
+        service.load();
+        return service;
+    }
+
+    private long persistedCount(long recipeId) {
+        List<Long> counts = jdbcTemplate.queryForList(
+                "SELECT order_count FROM recipe_stats WHERE recipeid = ?", Long.class, recipeId);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    private static OrderPlacedEvent order(Long... recipeIds) {
+        return new OrderPlacedEvent(1L, new Date(), Arrays.asList(recipeIds), List.of(1L));
+    }
+}
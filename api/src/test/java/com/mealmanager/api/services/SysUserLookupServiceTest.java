@@ -0,0 +1,61 @@
+package com.mealmanager.api.services;
+
+import com.mealmanager.api.model.SysUser;
+import com.mealmanager.api.repository.SysUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SysUserLookupServiceTest {
+
+    private final SysUserRepository sysUserRepository = mock(SysUserRepository.class);
+    private final SysUserLookupService lookupService =
+            new SysUserLookupService(sysUserRepository, new SimpleMeterRegistry(), 100, 5);
+
+    @Test
+    void userIsLoadedOnce() {
+        SysUser user = new SysUser("Ada", "Lovelace", "ada@example.com", true, "user_1");
+        when(sysUserRepository.loadByClerkUserId("user_1")).thenReturn(Optional.of(user));
+
+        assertEquals(Optional.of(user), lookupService.findByClerkUserId("user_1"));
+        assertEquals(Optional.of(user), lookupService.findByClerkUserId("user_1"));
+        verify(sysUserRepository, times(1)).loadByClerkUserId("user_1");
+    }
+
+    @Test
+    void missingProfileIsRememberedUntilInvalidated() {
+        SysUser user = new SysUser("Ada", "Lovelace", "ada@example.com", true, "user_1");
+        when(sysUserRepository.loadByClerkUserId("user_1")).thenReturn(Optional.empty()).thenReturn(Optional.of(user));
+
+        assertFalse(lookupService.findByClerkUserId("user_1").isPresent());
+        assertFalse(lookupService.findByClerkUserId("user_1").isPresent());
+        verify(sysUserRepository, times(1)).loadByClerkUserId("user_1");
+
+        lookupService.invalidate("user_1");
+        assertEquals(Optional.of(user), lookupService.findByClerkUserId("user_1"));
+        verify(sysUserRepository, times(2)).loadByClerkUserId("user_1");
+    }
+
+    @Test
+    void invalidateAllForgetsEveryUser() {
+        when(sysUserRepository.loadByClerkUserId("user_1")).thenReturn(Optional.empty());
+        when(sysUserRepository.loadByClerkUserId("user_2")).thenReturn(Optional.empty());
+        lookupService.findByClerkUserId("user_1");
+        lookupService.findByClerkUserId("user_2");
+
+        lookupService.invalidateAll();
+        lookupService.findByClerkUserId("user_1");
+        lookupService.findByClerkUserId("user_2");
+
+        verify(sysUserRepository, times(2)).loadByClerkUserId("user_1");
+        verify(sysUserRepository, times(2)).loadByClerkUserId("user_2");
+    }
+}
@@ -0,0 +1,79 @@
+package com.mealmanager.api.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight("test", meterRegistry);
+
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.load("all", () -> {
+                loading.countDown();
+                await(release);
+                return "value-" + loads.incrementAndGet();
+            })));
+            loading.await(5, TimeUnit.SECONDS);
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.load("all", () -> "value-" + loads.incrementAndGet())));
+            }
+            while (meterRegistry.counter("app.singleflight.coalesced", "name", "test").count() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value-1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, meterRegistry.counter("app.singleflight.loads", "name", "test").count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void laterCallsStartANewLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        singleFlight.load("all", loads::incrementAndGet);
+        singleFlight.load("all", loads::incrementAndGet);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failuresAreNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.load("all", () -> {
+            throw new IllegalStateException("down");
+        }));
+        assertEquals("up", singleFlight.load("all", () -> "up"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,4 +1,4 @@
-import React, { useState, useEffect, ChangeEvent } from 'react';
+import React, { useState, useEffect, useRef, ChangeEvent } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useRecipesService } from '../../services/recipes.service';
 import { useSysUsersService } from '../../services/sys-users.service';
@@ -9,6 +9,9 @@ import { DisplaySysUser } from '../../models/sys-user';
 import { CreateRecipeOrderDetails } from '../../models/recipe-order-details';
 
 const COMPONENT_NAME = 'CreateOrder';
+// Suggestions are only requested once typing pauses for this long
+const AUTOCOMPLETE_DELAY_MS = 200;
+const AUTOCOMPLETE_LIMIT = 50;
 
 const CreateOrder: React.FC = () => {
   const navigate = useNavigate();
@@ -29,9 +32,14 @@ const CreateOrder: React.FC = () => {
   const [message, setMessage] = useState<string>('');
   const [loading, setLoading] = useState<boolean>(true);
   const [submitting, setSubmitting] = useState<boolean>(false);
+  const [planning, setPlanning] = useState<boolean>(false);
   const [error, setError] = useState<string | null>(null);
   const [success, setSuccess] = useState<string | null>(null);
   const [searchRecipe, setSearchRecipe] = useState<string>('');
+  // Recipe ids suggested for the search, best match first; null until the suggestions arrive
+  const [suggestedRecipeIds, setSuggestedRecipeIds] = useState<number[] | null>(null);
+  // Reused when a failed submission is retried so the API never places the same order twice
+  const idempotencyKey = useRef<string>(crypto.randomUUID());
   
   // Create a data loading function outside of useEffect to avoid dependencies
   const loadData = async () => {
@@ -133,11 +141,42 @@ const CreateOrder: React.FC = () => {
     logger.debug(`Search query updated to "${searchTerm}"`, COMPONENT_NAME);
   };
   
-  const filteredRecipes = searchRecipe
-    ? recipes.filter(recipe => 
-        recipe.name.toLowerCase().includes(searchRecipe.toLowerCase())
-      )
-    : recipes;
+  useEffect(() => {
+    setSuggestedRecipeIds(null);
+    if (!searchRecipe.trim()) {
+      return;
+    }
+    // Ignores responses to searches the user has already typed past
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const suggestions = await recipesService.autocomplete(searchRecipe, AUTOCOMPLETE_LIMIT);
+        if (!cancelled) {
+          setSuggestedRecipeIds(suggestions.map(suggestion => suggestion.id));
+        }
+      } catch (error) {
+        logger.error(`Failed to fetch suggestions for "${searchRecipe}"`, error, COMPONENT_NAME);
+      }
+    }, AUTOCOMPLETE_DELAY_MS);
+
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  // Remove logger from dependency array to prevent re-renders
+  // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [searchRecipe, recipesService.autocomplete]);
+  
+  // Ranked suggestions from the API once they arrive, a plain name filter until then or if they fail
+  const filteredRecipes = !searchRecipe.trim()
+    ? recipes
+    : suggestedRecipeIds
+      ? suggestedRecipeIds
+          .map(id => recipes.find(recipe => recipe.id === id))
+          .filter((recipe): recipe is Recipe => recipe !== undefined)
+      : recipes.filter(recipe => 
+          recipe.name.toLowerCase().includes(searchRecipe.toLowerCase())
+        );
     
   useEffect(() => {
     if (searchRecipe) {
@@ -195,7 +234,8 @@ const CreateOrder: React.FC = () => {
         message: message
       };
       
-      const response = await recipeOrdersService.create(orderData);
+      const response = await recipeOrdersService.create(orderData, idempotencyKey.current);
+      idempotencyKey.current = crypto.randomUUID();
       
       logger.info(`Order #${response.id} created successfully`, COMPONENT_NAME);
       setSuccess(`Order #${response.id} created successfully!`);
@@ -218,6 +258,27 @@ const CreateOrder: React.FC = () => {
     }
   };
   
+  const handleMealPlan = async () => {
+    logger.info('Requesting a meal plan', COMPONENT_NAME);
+    setError(null);
+    setPlanning(true);
+    try {
+      const mealPlan = await recipesService.getMealPlan();
+      if (!mealPlan) {
+        logger.warn('No recipes are eligible for a meal plan', COMPONENT_NAME);
+        setError('No recipes are available for a meal plan.');
+        return;
+      }
+      setSelectedRecipeIds(mealPlan.selectedRecipes);
+      logger.debug(`Meal plan selected ${mealPlan.selectedRecipes.length} recipes`, COMPONENT_NAME);
+    } catch (error) {
+      logger.error('Failed to fetch a meal plan', error, COMPONENT_NAME);
+      setError('Failed to suggest a meal plan. Please try again.');
+    } finally {
+      setPlanning(false);
+    }
+  };
+  
   const handleSelectAll = (type: 'recipes' | 'users') => {
     if (type === 'recipes') {
       const allRecipeIds = recipes.map(recipe => recipe.id);
@@ -279,6 +340,14 @@ const CreateOrder: React.FC = () => {
               <div className="card-header d-flex justify-content-between align-items-center">
                 <h4 className="mb-0">Select Recipes</h4>
                 <div>
+                  <button 
+                    type="button" 
+                    className="btn btn-sm btn-outline-success me-2"
+                    onClick={handleMealPlan}
+                    disabled={planning}
+                  >
+                    {planning ? 'Planning...' : 'Suggest Meal Plan'}
+                  </button>
                   <button 
                     type="button" 
                     className="btn btn-sm btn-outline-primary me-2"
@@ -9,6 +9,8 @@ const DisplayOrders: React.FC = () => {
   const recipeOrdersService = useRecipeOrdersService();
   
   const [orders, setOrders] = useState<RecipeOrder[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState<boolean>(false);
   const [currentOrder, setCurrentOrder] = useState<RecipeOrder | null>(null);
   const [currentIndex, setCurrentIndex] = useState<number>(-1);
   const [loading, setLoading] = useState<boolean>(true);
@@ -22,8 +24,9 @@ const DisplayOrders: React.FC = () => {
   const retrieveOrders = async () => {
     try {
       setLoading(true);
-      const data = await recipeOrdersService.getAll();
-      setOrders(data);
+      const page = await recipeOrdersService.getPage();
+      setOrders(page.items);
+      setNextCursor(page.nextCursor);
       setLoading(false);
     } catch (error) {
       console.error('Error retrieving orders:', error);
@@ -32,6 +35,20 @@ const DisplayOrders: React.FC = () => {
     }
   };
 
+  const loadMoreOrders = async () => {
+    try {
+      setLoadingMore(true);
+      const page = await recipeOrdersService.getPage(nextCursor);
+      setOrders(previous => [...previous, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error retrieving more orders:', error);
+      setError('Failed to load orders');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const setActiveOrder = async (order: RecipeOrder, index: number) => {
     try {
       setCurrentOrder(order);
@@ -91,6 +108,16 @@ const DisplayOrders: React.FC = () => {
           ))}
         </ul>
 
+        {nextCursor && (
+          <button
+            className="btn btn-secondary mt-3 me-2"
+            onClick={loadMoreOrders}
+            disabled={loadingMore}
+          >
+            {loadingMore ? 'Loading...' : 'Load More'}
+          </button>
+        )}
+
         <Link to="/orders/new" className="btn btn-primary mt-3">
           New Order
         </Link>
@@ -0,0 +1,8 @@
+/**
+ * A page of results from an endpoint that uses cursor (keyset) pagination.
+ * Pass nextCursor back to the endpoint to fetch the following page; it is null on the last page.
+ */
+export interface CursorPage<T> {
+    items: T[];
+    nextCursor: string | null;
+}
@@ -10,4 +10,11 @@ export interface Recipe {
 
 export type CreateRecipe = CreateType<Recipe>;
 export type UpdateRecipe = UpdateType<Recipe>;
-export type DisplayRecipe = DisplayType<Recipe>;
\ No newline at end of file
+export type DisplayRecipe = DisplayType<Recipe>;
+
+export type RecipeSuggestion = Pick<Recipe, 'id' | 'name'>;
+
+export interface MealPlan {
+    selectedRecipes: number[];
+    recipes: DisplayRecipe[];
+}
@@ -1,16 +1,17 @@
 import { useCallback } from 'react';
 import { DisplayRecipeOrder } from "../models/recipe-order";
+import { CursorPage } from "../models/cursor-page";
 import { DisplayRecipeOrderDetails, CreateRecipeOrderDetails, CreateRecipeOrderResponse } from "../models/recipe-order-details";
 import { useAuthClient } from "./client";
 
 export const useRecipeOrdersService = () => {
   const authClient = useAuthClient();
 
-  const getAll = useCallback(async (): Promise<DisplayRecipeOrder[]> => {
+  const getPage = useCallback(async (cursor?: string | null): Promise<CursorPage<DisplayRecipeOrder>> => {
     try {
-      const response = await authClient.get('/orders');
+      const response = await authClient.get('/orders', { params: cursor ? { cursor } : undefined });
       if (response.status === 204) {
-        return [];
+        return { items: [], nextCursor: null };
       }
       return response.data;
     } catch (error) {
@@ -35,9 +36,10 @@ export const useRecipeOrdersService = () => {
     }
   }, [authClient]);
 
-  const create = useCallback(async (data: CreateRecipeOrderDetails): Promise<CreateRecipeOrderResponse> => {
+  const create = useCallback(async (data: CreateRecipeOrderDetails, idempotencyKey?: string): Promise<CreateRecipeOrderResponse> => {
     try {
-      const response = await authClient.post('/orders', data);
+      const headers = idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : undefined;
+      const response = await authClient.post('/orders', data, { headers });
       return response.data;
     } catch (error) {
       if (error instanceof Error) {
@@ -49,7 +51,7 @@ export const useRecipeOrdersService = () => {
   }, [authClient]);
 
   return {
-    getAll,
+    getPage,
     get,
     create
   };
@@ -1,5 +1,5 @@
 import { useCallback } from 'react';
-import { CreateRecipe, UpdateRecipe, DisplayRecipe } from "../models/recipe";
+import { CreateRecipe, UpdateRecipe, DisplayRecipe, RecipeSuggestion, MealPlan } from "../models/recipe";
 import { useAuthClient } from "./client";
 
 // Hook for authenticated methods
@@ -32,6 +32,33 @@ export const useRecipesService = () => {
     }
   }, [authClient]);
 
+  const autocomplete = useCallback(async (query: string, limit = 10): Promise<RecipeSuggestion[]> => {
+    try {
+      const response = await authClient.get('/recipes/autocomplete', { params: { q: query, limit } });
+      return response.data;
+    } catch (error) {
+      if (error instanceof Error) {
+        throw new Error(`Failed to fetch Recipe suggestions: ${error.message}`, { cause: error });
+      } else {
+        throw new Error(`Failed to fetch Recipe suggestions: ${JSON.stringify(error)}`);
+      }
+    }
+  }, [authClient]);
+
+  const getMealPlan = useCallback(async (count = 7, excludeRecentOrders = 2): Promise<MealPlan | null> => {
+    try {
+      const response = await authClient.get('/recipes/meal-plan', { params: { count, excludeRecentOrders } });
+      // 204 when no recipe is eligible
+      return response.status === 204 ? null : response.data;
+    } catch (error) {
+      if (error instanceof Error) {
+        throw new Error(`Failed to fetch a meal plan: ${error.message}`, { cause: error });
+      } else {
+        throw new Error(`Failed to fetch a meal plan: ${JSON.stringify(error)}`);
+      }
+    }
+  }, [authClient]);
+
   const create = useCallback(async (data: CreateRecipe): Promise<DisplayRecipe> => {
     try {
       const response = await authClient.post('/recipes', data);
@@ -98,6 +125,8 @@ export const useRecipesService = () => {
   return {
     getAll,
     get,
+    autocomplete,
+    getMealPlan,
     create,
     update,
     disable,